@@ -8,6 +8,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 // Import für DayOfWeek und LocalTime, falls noch nicht vorhanden
 import java.time.DayOfWeek;
 import java.time.LocalTime;
@@ -18,6 +19,7 @@ import com.friseursalon.backend.service.WorkingHoursService;
 
 
 @SpringBootApplication
+@EnableScheduling
 public class FriseursalonBackendApplication {
 
     public static void main(String[] args) {
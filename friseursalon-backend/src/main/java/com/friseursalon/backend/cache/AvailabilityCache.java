@@ -0,0 +1,86 @@
+package com.friseursalon.backend.cache;
+
+import com.friseursalon.backend.service.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Cache der berechneten freien Startzeiten pro (Datum, Service-Dauer, Slot-Raster, Lückenfüllung).
+ * Gespeichert wird das Ergebnis ohne den "jetzt + 15 Minuten"-Filter, damit Einträge für heute
+ * nicht mit der Uhrzeit veralten. Alle Buchungs-, Blockade- und Arbeitszeit-Änderungen
+ * invalidieren gezielt die betroffenen Tage – innerhalb einer Transaktion erst nach dem Commit.
+ */
+@Component
+public class AvailabilityCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityCache.class);
+
+    private final BoundedTtlCache<Key, List<LocalTime>> cache;
+
+    @Autowired
+    public AvailabilityCache(@Value("${availability.cache.max-entries:2000}") int maxEntries,
+                             @Value("${availability.cache.ttl-seconds:300}") long ttlSeconds,
+                             MeterRegistry meterRegistry) {
+        this.cache = new BoundedTtlCache<>(maxEntries, Duration.ofSeconds(ttlSeconds));
+        BoundedTtlCacheMetrics.monitor(meterRegistry, cache, "availability");
+    }
+
+    public List<LocalTime> get(LocalDate date, int durationMinutes, int slotIntervalMinutes, boolean packGaps) {
+        return cache.get(new Key(date, durationMinutes, slotIntervalMinutes, packGaps));
+    }
+
+    // Vor der Berechnung lesen und an putIfUnchanged übergeben
+    public long currentGeneration() {
+        return cache.currentGeneration();
+    }
+
+    // Legt das Ergebnis nur ab, wenn seit Beginn der Berechnung (loadGeneration) nichts invalidiert wurde
+    public void putIfUnchanged(LocalDate date, int durationMinutes, int slotIntervalMinutes, boolean packGaps,
+                               List<LocalTime> freeStarts, long loadGeneration) {
+        boolean stored = cache.putIfUnchanged(new Key(date, durationMinutes, slotIntervalMinutes, packGaps), List.copyOf(freeStarts),
+                null, loadGeneration);
+        if (!stored) {
+            logger.debug("Verfügbarkeit für {} ({} Min) nicht gecacht, Daten haben sich während der Berechnung geändert.", date, durationMinutes);
+        }
+    }
+
+    public void invalidateDate(LocalDate date) {
+        if (date == null) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            int removed = cache.invalidateIf(key -> key.date().equals(date));
+            logger.debug("Verfügbarkeits-Cache für {} invalidiert ({} Einträge).", date, removed);
+        });
+    }
+
+    public void invalidateDayOfWeek(DayOfWeek dayOfWeek) {
+        if (dayOfWeek == null) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            int removed = cache.invalidateIf(key -> key.date().getDayOfWeek() == dayOfWeek);
+            logger.debug("Verfügbarkeits-Cache für alle {} invalidiert ({} Einträge).", dayOfWeek, removed);
+        });
+    }
+
+    public void invalidateAll() {
+        AfterCommit.run(() -> {
+            cache.invalidateAll();
+            logger.debug("Verfügbarkeits-Cache vollständig geleert.");
+        });
+    }
+
+    private record Key(LocalDate date, int durationMinutes, int slotIntervalMinutes, boolean packGaps) {
+    }
+}
@@ -0,0 +1,197 @@
+package com.friseursalon.backend.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Kleiner In-Memory-Cache mit fester Maximalgröße (LRU) und Ablaufzeit pro Eintrag.
+ * Zugriffe sind über einen einzigen Monitor synchronisiert; die Einträge sind klein und die
+ * kritischen Abschnitte kurz, daher reicht das für unsere Lastprofile.
+ * Zähler für Treffer, Fehlzugriffe und Verdrängungen werden über {@link BoundedTtlCacheMetrics} exportiert.
+ * <p>
+ * Jede Invalidierung erhöht eine Generation. Wer einen Wert berechnet, merkt sich vorher
+ * {@link #currentGeneration()} und legt ihn mit {@link #putIfUnchanged} ab; wurde währenddessen
+ * invalidiert, wird das möglicherweise veraltete Ergebnis verworfen.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final int maxEntries;
+    private final long defaultTtlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    // Nur unter dem Monitor von entries erhöht, gelesen auch ohne
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maxEntries maximale Anzahl Einträge, danach wird der am längsten nicht genutzte verdrängt
+     * @param defaultTtl Lebensdauer eines Eintrags; {@code null} oder 0 bedeutet "ohne Ablauf"
+     */
+    public BoundedTtlCache(int maxEntries, Duration defaultTtl) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries muss positiv sein.");
+        }
+        this.maxEntries = maxEntries;
+        this.defaultTtlNanos = toNanos(defaultTtl);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public V get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.isExpired(System.nanoTime())) {
+                entries.remove(key);
+                evictions.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        put(key, value, null);
+    }
+
+    // ttl == null übernimmt die Standard-Lebensdauer, Duration.ZERO bedeutet "ohne Ablauf"
+    public void put(K key, V value, Duration ttl) {
+        store(key, value, ttl, -1);
+    }
+
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Legt den Eintrag nur ab, wenn seit {@code loadGeneration} (vor dem Berechnen des Werts gelesen) nicht
+     * invalidiert wurde. Prüfung und Ablage laufen unter demselben Monitor wie die Invalidierungen, eine
+     * Invalidierung kann also nicht dazwischen fallen.
+     *
+     * @return {@code false}, wenn der Wert verworfen wurde
+     */
+    public boolean putIfUnchanged(K key, V value, Duration ttl, long loadGeneration) {
+        return store(key, value, ttl, loadGeneration);
+    }
+
+    // loadGeneration < 0: ohne Prüfung ablegen
+    private boolean store(K key, V value, Duration ttl, long loadGeneration) {
+        long ttlNanos = ttl == null ? defaultTtlNanos : toNanos(ttl);
+        long expiresAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : Long.MAX_VALUE;
+        synchronized (entries) {
+            if (loadGeneration >= 0 && generation.get() != loadGeneration) {
+                return false;
+            }
+            entries.put(key, new Entry<>(value, expiresAt));
+            puts.increment();
+            if (entries.size() > maxEntries) {
+                evictOverflow();
+            }
+            return true;
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            if (entries.remove(key) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    public int invalidateIf(Predicate<? super K> keyPredicate) {
+        int removed = 0;
+        synchronized (entries) {
+            generation.incrementAndGet();
+            Iterator<K> iterator = entries.keySet().iterator();
+            while (iterator.hasNext()) {
+                if (keyPredicate.test(iterator.next())) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        }
+        invalidations.add(removed);
+        return removed;
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    // Zuerst abgelaufene Einträge entfernen, danach die am längsten nicht genutzten
+    private void evictOverflow() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue().isExpired(now)) {
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+        iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private static long toNanos(Duration ttl) {
+        return (ttl == null || ttl.isNegative()) ? 0L : ttl.toNanos();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0 && expiresAt != Long.MAX_VALUE;
+        }
+    }
+}
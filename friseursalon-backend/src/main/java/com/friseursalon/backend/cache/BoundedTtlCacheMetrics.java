@@ -0,0 +1,70 @@
+package com.friseursalon.backend.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Exportiert die Zähler eines {@link BoundedTtlCache} unter den üblichen Micrometer-Namen
+ * (cache.gets, cache.puts, cache.evictions, cache.size), sichtbar unter /actuator/metrics.
+ * Zusammen mit cache.max.entries zeigt cache.size die Speicherbelegung relativ zur Obergrenze.
+ */
+public class BoundedTtlCacheMetrics extends CacheMeterBinder<BoundedTtlCache<?, ?>> {
+
+    public BoundedTtlCacheMetrics(BoundedTtlCache<?, ?> cache, String cacheName, Iterable<Tag> tags) {
+        super(cache, cacheName, tags);
+    }
+
+    public static void monitor(MeterRegistry registry, BoundedTtlCache<?, ?> cache, String cacheName) {
+        new BoundedTtlCacheMetrics(cache, cacheName, Tags.empty()).bindTo(registry);
+    }
+
+    @Override
+    protected Long size() {
+        BoundedTtlCache<?, ?> cache = getCache();
+        return cache == null ? null : (long) cache.size();
+    }
+
+    @Override
+    protected long hitCount() {
+        BoundedTtlCache<?, ?> cache = getCache();
+        return cache == null ? 0L : cache.getHitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        BoundedTtlCache<?, ?> cache = getCache();
+        return cache == null ? null : cache.getMissCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        BoundedTtlCache<?, ?> cache = getCache();
+        return cache == null ? null : cache.getEvictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        BoundedTtlCache<?, ?> cache = getCache();
+        return cache == null ? 0L : cache.getPutCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        BoundedTtlCache<?, ?> cache = getCache();
+        if (cache == null) {
+            return;
+        }
+        FunctionCounter.builder("cache.invalidations", cache, BoundedTtlCache::getInvalidationCount)
+                .tags(getTagsWithCacheName())
+                .description("Anzahl gezielt invalidierter Einträge")
+                .register(registry);
+        Gauge.builder("cache.max.entries", cache, BoundedTtlCache::getMaxEntries)
+                .tags(getTagsWithCacheName())
+                .description("Maximale Anzahl Einträge, danach wird verdrängt")
+                .register(registry);
+    }
+}
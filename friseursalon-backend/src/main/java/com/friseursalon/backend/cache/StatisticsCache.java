@@ -0,0 +1,104 @@
+package com.friseursalon.backend.cache;
+
+import com.friseursalon.backend.service.AfterCommit;
+import com.friseursalon.backend.service.AppointmentChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cache der Statistik-Ergebnisse pro (Auswertung, Zeitraum, Parameter).
+ * <p>
+ * Ergebnisse für abgeschlossene Zeiträume (Ende vor heute) laufen nicht ab, Zeiträume bis heute oder
+ * in die Zukunft nur kurz. Terminänderungen invalidieren nach dem Commit gezielt alle Einträge, deren
+ * Zeitraum das alte oder neue Termindatum enthält; Änderungen an Dienstleistungen, Öffnungszeiten und
+ * Blockaden sowie der nächtliche Abgleich leeren den Cache vollständig.
+ * Die gecachten Objekte werden geteilt und dürfen von Aufrufern nicht verändert werden.
+ */
+@Component
+public class StatisticsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsCache.class);
+
+    private final BoundedTtlCache<Key, Object> cache;
+    private final Duration currentPeriodTtl;
+
+    @Autowired
+    public StatisticsCache(@Value("${statistics.cache.max-entries:500}") int maxEntries,
+                           @Value("${statistics.cache.current-period-ttl-seconds:60}") long currentPeriodTtlSeconds,
+                           MeterRegistry meterRegistry) {
+        if (currentPeriodTtlSeconds <= 0) {
+            throw new IllegalArgumentException("statistics.cache.current-period-ttl-seconds muss positiv sein.");
+        }
+        this.cache = new BoundedTtlCache<>(maxEntries, Duration.ZERO);
+        this.currentPeriodTtl = Duration.ofSeconds(currentPeriodTtlSeconds);
+        BoundedTtlCacheMetrics.monitor(meterRegistry, cache, "statistics");
+    }
+
+    public <T> T getOrLoad(String method, LocalDate from, LocalDate to, List<?> params, Supplier<T> loader) {
+        return getOrLoad(method, from, to, params, loader, value -> true);
+    }
+
+    /**
+     * Liefert das gecachte Ergebnis oder berechnet es. {@code from}/{@code to} beschreiben alle Tage, deren
+     * Termine in das Ergebnis einfließen ({@code null} = offen); {@code cacheable} entscheidet, ob ein frisch
+     * berechnetes Ergebnis abgelegt wird (z.B. keine Teilergebnisse).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(String method, LocalDate from, LocalDate to, List<?> params,
+                           Supplier<T> loader, Predicate<? super T> cacheable) {
+        Key key = new Key(method, from, to, List.copyOf(params));
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+        long loadGeneration = cache.currentGeneration();
+        T value = loader.get();
+        if (value == null || !cacheable.test(value)) {
+            return value;
+        }
+        // Abgeschlossene Zeiträume ändern sich nur noch durch Terminänderungen, die gezielt invalidieren, und laufen
+        // nie ab; ein während einer Invalidierung berechnetes Ergebnis bliebe sonst dauerhaft stehen
+        boolean closed = to != null && to.isBefore(LocalDate.now());
+        boolean stored = cache.putIfUnchanged(key, value, closed ? Duration.ZERO : currentPeriodTtl, loadGeneration);
+        if (!stored) {
+            logger.debug("Statistik '{}' ({} bis {}) nicht gecacht, Termine haben sich während der Berechnung geändert.", method, from, to);
+        }
+        return value;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        LocalDate before = event.before() != null && event.before().startTime() != null ? event.before().startTime().toLocalDate() : null;
+        LocalDate after = event.after() != null && event.after().startTime() != null ? event.after().startTime().toLocalDate() : null;
+        if (before == null && after == null) {
+            return;
+        }
+        int removed = cache.invalidateIf(key -> key.covers(before) || key.covers(after));
+        logger.debug("Statistik-Cache für {} / {} invalidiert ({} Einträge).", before, after, removed);
+    }
+
+    public void invalidateAll() {
+        AfterCommit.run(() -> {
+            cache.invalidateAll();
+            logger.debug("Statistik-Cache vollständig geleert.");
+        });
+    }
+
+    private record Key(String method, LocalDate from, LocalDate to, List<?> params) {
+        boolean covers(LocalDate date) {
+            return date != null && (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+        }
+    }
+}
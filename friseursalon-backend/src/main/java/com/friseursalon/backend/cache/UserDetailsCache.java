@@ -0,0 +1,64 @@
+package com.friseursalon.backend.cache;
+
+import com.friseursalon.backend.security.details.UserDetailsImpl;
+import com.friseursalon.backend.service.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cache der geladenen {@link UserDetailsImpl} pro E-Mail für {@code UserService.loadUserByUsername}.
+ * Profil- und Passwortänderungen invalidieren den Eintrag des Benutzers nach dem Commit; die Ablaufzeit
+ * begrenzt, wie lange Änderungen anderer Instanzen unbemerkt bleiben.
+ */
+@Component
+public class UserDetailsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsCache.class);
+
+    private final BoundedTtlCache<String, UserDetailsImpl> cache;
+
+    @Autowired
+    public UserDetailsCache(@Value("${user-details.cache.max-entries:1000}") int maxEntries,
+                            @Value("${user-details.cache.ttl-seconds:300}") long ttlSeconds,
+                            MeterRegistry meterRegistry) {
+        this.cache = new BoundedTtlCache<>(maxEntries, Duration.ofSeconds(ttlSeconds));
+        BoundedTtlCacheMetrics.monitor(meterRegistry, cache, "user-details");
+    }
+
+    public UserDetailsImpl get(String email) {
+        return email != null ? cache.get(normalize(email)) : null;
+    }
+
+    public long currentGeneration() {
+        return cache.currentGeneration();
+    }
+
+    // Während einer Invalidierung geladene Benutzer werden nicht abgelegt
+    public void putIfUnchanged(String email, UserDetailsImpl userDetails, long loadGeneration) {
+        if (!cache.putIfUnchanged(normalize(email), userDetails, null, loadGeneration)) {
+            logger.debug("Benutzer {} nicht gecacht, er wurde während des Ladens geändert.", email);
+        }
+    }
+
+    public void invalidate(String email) {
+        if (email == null) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            cache.invalidate(normalize(email));
+            logger.debug("Benutzer-Cache für {} invalidiert.", email);
+        });
+    }
+
+    // Die Suche per findByEmail ist in H2/PostgreSQL case-sensitiv; der Cache-Schlüssel bleibt es auch,
+    // nur Leerzeichen am Rand werden ignoriert
+    private static String normalize(String email) {
+        return email.strip();
+    }
+}
@@ -1,5 +1,8 @@
 package com.friseursalon.backend.config;
 
+import com.friseursalon.backend.security.password.OffloadingPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -9,7 +12,12 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class PasswordEncoderConfig {
 
     @Bean // Markiert diese Methode als Bean-Definition
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(); // Verwendet BCrypt für sicheres Passwort-Hashing
+    public PasswordEncoder passwordEncoder(@Value("${password-hashing.threads:0}") int threads,
+                                           @Value("${password-hashing.queue-capacity:50}") int queueCapacity,
+                                           @Value("${password-hashing.timeout-ms:5000}") long timeoutMillis,
+                                           MeterRegistry meterRegistry) {
+        // Verwendet BCrypt für sicheres Passwort-Hashing, auf einem eigenen begrenzten Pool (0 = ein Thread pro CPU-Kern)
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new OffloadingPasswordEncoder(new BCryptPasswordEncoder(), poolSize, queueCapacity, timeoutMillis, meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -4,7 +4,10 @@ package com.friseursalon.backend.config;
 import com.friseursalon.backend.service.UserService;
 import com.friseursalon.backend.security.jwt.AuthEntryPointJwt;
 import com.friseursalon.backend.security.jwt.AuthTokenFilter;
+import com.friseursalon.backend.security.ratelimit.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -32,14 +35,17 @@ public class SecurityConfig {
     private final PasswordEncoder passwordEncoder;
     private final AuthEntryPointJwt unauthorizedHandler;
     private final AuthTokenFilter authTokenFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     @Autowired
     public SecurityConfig(UserService userService, PasswordEncoder passwordEncoder,
-                          AuthEntryPointJwt unauthorizedHandler, AuthTokenFilter authTokenFilter) {
+                          AuthEntryPointJwt unauthorizedHandler, AuthTokenFilter authTokenFilter,
+                          RateLimitFilter rateLimitFilter) {
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
         this.unauthorizedHandler = unauthorizedHandler;
         this.authTokenFilter = authTokenFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     @Bean
@@ -69,6 +75,15 @@ public class SecurityConfig {
         return source;
     }
 
+    // Als @Component würde Spring Boot den Filter zusätzlich direkt im Servlet-Container registrieren,
+    // vor dem AuthTokenFilter und damit nur nach IP; er soll ausschließlich in der Security-Kette laufen
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -78,6 +93,8 @@ public class SecurityConfig {
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Abschluss von Streaming-Antworten (Exporte); die Anfrage selbst wurde bereits autorisiert
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll() // Erfasst jetzt auch /forgot-password und /reset-password
                         .requestMatchers("/api/hello").permitAll()
                         .requestMatchers("/api/services/**").permitAll()
@@ -85,8 +102,11 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/blockedtimeslots/date/**").permitAll()
                         .requestMatchers("/api/blockedtimeslots/**").hasRole("ADMIN")
                         .requestMatchers("/h2-console/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/appointments").permitAll()
                         .requestMatchers("/api/statistics/**").hasRole("ADMIN")
+                        .requestMatchers("/api/export/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/users/profile").hasAnyRole("USER", "ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/users/change-password").hasAnyRole("USER", "ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/users/**").hasRole("ADMIN")
@@ -101,6 +121,8 @@ public class SecurityConfig {
 
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(authTokenFilter, UsernamePasswordAuthenticationFilter.class);
+        // Nach dem JWT-Filter, damit angemeldete Benutzer unabhängig von ihrer IP begrenzt werden
+        http.addFilterAfter(rateLimitFilter, AuthTokenFilter.class);
 
         return http.build();
     }
@@ -114,6 +114,26 @@ public class AppointmentController {
         return new ResponseEntity<>(availableTimes, HttpStatus.OK);
     }
 
+    @GetMapping("/available-slots/range")
+    public ResponseEntity<?> getAvailableSlotsInRange(
+            @RequestParam Long serviceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        logger.info("GET /api/appointments/available-slots/range called with serviceId: {}, startDate: {}, endDate: {}", serviceId, startDate, endDate);
+        Map<LocalDate, List<String>> availableTimesByDate = appointmentService.getAvailableSlotsForServiceInRange(serviceId, startDate, endDate);
+        return new ResponseEntity<>(availableTimesByDate, HttpStatus.OK);
+    }
+
+    @GetMapping("/available-slots/next")
+    public ResponseEntity<?> getNextAvailableSlots(
+            @RequestParam Long serviceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(defaultValue = "5") int count) {
+        logger.info("GET /api/appointments/available-slots/next called with serviceId: {}, from: {}, count: {}", serviceId, from, count);
+        List<LocalDateTime> nextSlots = appointmentService.findNextAvailableSlots(serviceId, from, count);
+        return new ResponseEntity<>(nextSlots, HttpStatus.OK);
+    }
+
     @GetMapping("/my-appointments")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<?> getMyAppointments() {
@@ -221,6 +241,10 @@ public class AppointmentController {
             AppointmentStatus status = AppointmentStatus.valueOf(statusStr.toUpperCase());
             Appointment updatedAppointment = appointmentService.updateAppointmentStatus(id, status);
             return ResponseEntity.ok(updatedAppointment);
+        } catch (AppointmentConflictException e) {
+            // Reaktivierung eines stornierten Termins, dessen Zeitpunkt inzwischen belegt ist
+            logger.warn("Statusänderung für Termin-ID {} abgelehnt: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse(e.getMessage()));
         } catch (IllegalArgumentException e) {
             logger.warn("Ungültiger Statuswert empfangen: {}", statusStr);
             return ResponseEntity.badRequest().body(new MessageResponse("Ungültiger Statuswert: " + statusStr));
@@ -0,0 +1,78 @@
+package com.friseursalon.backend.controller;
+
+import com.friseursalon.backend.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+// Streaming-Exporte für die Buchhaltung; die Antwort wird zeilenweise geschrieben, während gelesen wird
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "http://localhost:3000")
+@PreAuthorize("hasRole('ADMIN')")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @Autowired
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/appointments")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @RequestParam(name = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(name = "format", defaultValue = "csv") String format) {
+        ExportService.Format exportFormat = ExportService.Format.fromParameter(format);
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return streaming("termine", startDate, endDate, exportFormat,
+                out -> exportService.writeAppointments(startDate, endDate, exportFormat, out));
+    }
+
+    @GetMapping("/customers")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
+            @RequestParam(name = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(name = "format", defaultValue = "csv") String format) {
+        ExportService.Format exportFormat = ExportService.Format.fromParameter(format);
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return streaming("kunden", startDate, endDate, exportFormat,
+                out -> exportService.writeCustomers(startDate, endDate, exportFormat, out));
+    }
+
+    @GetMapping("/daily-stats")
+    public ResponseEntity<StreamingResponseBody> exportDailyStats(
+            @RequestParam(name = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(name = "format", defaultValue = "csv") String format) {
+        ExportService.Format exportFormat = ExportService.Format.fromParameter(format);
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return streaming("tagesstatistik", startDate, endDate, exportFormat,
+                out -> exportService.writeDailyStats(startDate, endDate, exportFormat, out));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streaming(String dataset, LocalDate startDate, LocalDate endDate,
+                                                                   ExportService.Format format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(ExportService.fileName(dataset, startDate, endDate, format))
+                        .build().toString())
+                .body(body);
+    }
+}
@@ -52,6 +52,9 @@ public class ServiceController {
         try {
             Service updatedService = serviceService.updateService(id, serviceDetails);
             return new ResponseEntity<>(updatedService, HttpStatus.OK);
+        } catch (IllegalArgumentException ex) {
+            // Ungültige Eingaben als 400 über den GlobalExceptionHandler, nicht als 404
+            throw ex;
         } catch (RuntimeException ex) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -24,16 +24,18 @@ public class StatisticsController {
     public StatisticsController(StatisticsService statisticsService) {
         this.statisticsService = statisticsService;
     }
-    // Vorschlag für StatisticsController.java
 
     @GetMapping("/top-services")
     public ResponseEntity<List<TopServiceDTO>> getTopServices(
             @RequestParam(defaultValue = "bookings") String sortBy,
-            @RequestParam(defaultValue = "3") int limit) {
-        // Hier käme die neue Logik im StatisticsService,
-        // die je nach 'sortBy' ("bookings" oder "revenue")
-        // die Daten aus der Datenbank holt, aggregiert und die Top 'limit' Ergebnisse zurückgibt.
-        List<TopServiceDTO> topServices = statisticsService.getTopServices(sortBy, limit);
+            @RequestParam(defaultValue = "3") int limit,
+            @RequestParam(name = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        // Ohne Zeitraum wird wie bisher über alle Termine gerankt
+        if (limit <= 0 || (startDate != null && endDate != null && startDate.isAfter(endDate))) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<TopServiceDTO> topServices = statisticsService.getTopServices(sortBy, limit, startDate, endDate);
         return ResponseEntity.ok(topServices);
     }
     @GetMapping("/detailed-counts")
@@ -96,6 +98,17 @@ public class StatisticsController {
         return ResponseEntity.ok(statisticsService.getRevenueOverTime(startDate, endDate));
     }
 
+    @GetMapping("/revenue-by-service")
+    public ResponseEntity<List<RevenueByServiceDTO>> getRevenueByService(
+            @RequestParam(name = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(statisticsService.getRevenueByService(startDate, endDate));
+    }
+
     @GetMapping("/capacity-utilization")
     public ResponseEntity<CapacityUtilizationDTO> getCapacityUtilization(
             @RequestParam(name = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
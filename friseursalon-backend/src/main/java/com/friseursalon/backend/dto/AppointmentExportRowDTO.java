@@ -0,0 +1,29 @@
+package com.friseursalon.backend.dto;
+
+import com.friseursalon.backend.model.AppointmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Flache Exportzeile eines Termins; wird direkt aus der Abfrage erzeugt, ohne Entitäten zu laden
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentExportRowDTO {
+    private Long id;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private AppointmentStatus status;
+    private LocalDateTime createdAt;
+    private Long serviceId;
+    private String serviceName;
+    private Double price;
+    private Integer durationMinutes;
+    private Long customerId;
+    private String customerFirstName;
+    private String customerLastName;
+    private String customerEmail;
+    private String notes;
+}
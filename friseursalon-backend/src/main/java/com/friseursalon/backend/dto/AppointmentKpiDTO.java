@@ -0,0 +1,21 @@
+package com.friseursalon.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Zähler und Umsätze für Zeitraum und Vorperiode aus einer einzigen Aggregationsabfrage.
+// "Aktiv" bedeutet nicht storniert; SUM liefert null, wenn keine Zeile passt.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentKpiDTO {
+    private Long periodActiveCount;
+    private Double periodRevenue;
+    private Long periodCancelledCount;
+    private Long periodDurationMinutes;
+
+    private Long previousActiveCount;
+    private Double previousRevenue;
+    private Long previousCancelledCount;
+}
@@ -0,0 +1,17 @@
+package com.friseursalon.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Schlanke Projektion eines Termins für die Slot-Berechnung (ohne Kunde/Service-Entitäten)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookedIntervalDTO {
+    private Long appointmentId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
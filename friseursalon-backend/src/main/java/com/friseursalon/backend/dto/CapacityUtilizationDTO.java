@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -16,4 +17,5 @@ public class CapacityUtilizationDTO {
     private long totalBookedMinutes;      // Gesamt gebuchte Minuten im Zeitraum
     private String periodStartDate;       // Formatiertes Startdatum des Zeitraums
     private String periodEndDate;         // Formatiertes Enddatum des Zeitraums
+    private List<DailyCapacityDTO> dailyUtilization; // Auslastung je Tag, um schwach ausgelastete Tage zu erkennen
 }
\ No newline at end of file
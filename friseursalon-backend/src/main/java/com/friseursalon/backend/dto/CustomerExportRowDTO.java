@@ -0,0 +1,20 @@
+package com.friseursalon.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Exportzeile eines Kunden (ohne interne Notizen)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerExportRowDTO {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String phoneNumber;
+    private LocalDateTime registrationDate;
+}
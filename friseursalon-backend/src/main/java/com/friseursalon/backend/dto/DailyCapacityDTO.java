@@ -0,0 +1,18 @@
+package com.friseursalon.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Auslastung eines einzelnen Tages; geschlossene Tage haben 0 verfügbare Minuten
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyCapacityDTO {
+    private LocalDate date;
+    private long availableMinutes;
+    private long bookedMinutes;
+    private double utilizationPercentage;
+}
@@ -0,0 +1,23 @@
+package com.friseursalon.backend.dto;
+
+import com.friseursalon.backend.model.AppointmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Exportzeile der Tagesstatistik mit aufgelöstem Dienstleistungsnamen
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyStatExportRowDTO {
+    private LocalDate statDate;
+    private Long serviceId;
+    private String serviceName;
+    private int hourOfDay;
+    private AppointmentStatus status;
+    private long appointmentCount;
+    private long bookedMinutes;
+    private double revenue;
+}
@@ -0,0 +1,23 @@
+package com.friseursalon.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Kacheln des Dashboards (heute, Woche, Monat, anstehend, neue Buchungen). Wird beim Abgleich
+// per Aggregationsabfrage befüllt und danach aus den Live-Zählern gelesen. Nur aktive Termine zählen.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardTilesDTO {
+    private Long todayActiveCount;
+    private Double todayRevenue;
+    private Long weekActiveCount;
+    private Double weekRevenue;
+    private Long monthActiveCount;
+    private Double monthRevenue;
+    private Long upcomingActiveCount;
+
+    private Long createdTodayCount;
+    private Long createdYesterdayCount;
+}
@@ -2,6 +2,7 @@
 package com.friseursalon.backend.dto;
 
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -10,6 +11,7 @@ import java.math.BigDecimal;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Builder(toBuilder = true)
 public class DetailedAppointmentStatsDTO {
     // KPIs für den ausgewählten Zeitraum
     private long totalAppointmentsInPeriod;
@@ -56,6 +58,9 @@ public class DetailedAppointmentStatsDTO {
     private Integer avgBookingLeadTime;
     private BigDecimal projectedRevenueNext30Days;
 
+    // true, wenn einzelne Kennzahlen nicht rechtzeitig berechnet werden konnten und deshalb null sind
+    private boolean partialResult;
+
     // Konstruktor für Basiszahlen
     public DetailedAppointmentStatsDTO(
             long totalAppointmentsInPeriod, BigDecimal totalRevenueInPeriod,
@@ -0,0 +1,20 @@
+package com.friseursalon.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Umsatz einer Dienstleistung im Zeitraum und in der gleich langen Vorperiode
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueByServiceDTO {
+    private Long serviceId;
+    private String serviceName;
+    private long appointmentCount;
+    private BigDecimal revenue;
+    private BigDecimal previousPeriodRevenue;
+    private Double revenueChangePercentage;
+}
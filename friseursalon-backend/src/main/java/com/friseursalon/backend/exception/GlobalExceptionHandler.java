@@ -64,6 +64,15 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(messageResponse, HttpStatus.CONFLICT); // 409 Conflict
     }
 
+    // Handler für PasswordHashingBusyException: Passwort-Hashing ausgelastet, Client soll es kurz darauf erneut versuchen
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<MessageResponse> handlePasswordHashingBusyException(PasswordHashingBusyException ex, WebRequest request) {
+        globalExceptionLogger.warn("Passwort-Hashing ausgelastet - Anfrage: {}", request.getDescription(false));
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS) // 429 Too Many Requests
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponse(ex.getMessage()));
+    }
+
     // Handler für IllegalArgumentException
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<MessageResponse> handleIllegalArgumentException(IllegalArgumentException ex, WebRequest request) {
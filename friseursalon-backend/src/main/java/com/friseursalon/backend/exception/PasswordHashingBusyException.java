@@ -0,0 +1,8 @@
+package com.friseursalon.backend.exception;
+
+// Der Passwort-Hashing-Pool ist ausgelastet; wird als 429 Too Many Requests beantwortet
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -9,6 +9,9 @@ import org.hibernate.annotations.CreationTimestamp; // Import für CreationTimes
 import java.time.LocalDateTime; // Für Datum und Uhrzeit
 
 @Entity
+// Endzeit vorn: "endet nach dem Beginn" grenzt auf die Termine ab dem geprüften Zeitraum ein, "beginnt vor dem Ende"
+// träfe dagegen die ganze Historie
+@Table(indexes = @Index(name = "idx_appointment_end_start", columnList = "end_time, start_time"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,6 +24,11 @@ public class Appointment {
     // Startzeitpunkt des Termins (Datum und Uhrzeit)
     private LocalDateTime startTime;
 
+    // Endzeitpunkt (Start + Dauer der Dienstleistung), denormalisiert gespeichert,
+    // damit die Konfliktprüfung eine reine Bereichsabfrage über den Index ist
+    @Column(name = "end_time")
+    private LocalDateTime endTime;
+
     // Verknüpfung zur gebuchten Dienstleistung
     @ManyToOne // Viele Termine können zu einer Dienstleistung gehören
     @JoinColumn(name = "service_id") // Name der Fremdschlüsselspalte in der Appointment-Tabelle
@@ -43,4 +51,13 @@ public class Appointment {
     @Enumerated(EnumType.STRING)
     @Column(length = 20, nullable = true) // Nullable, falls ein Standardstatus beim Erstellen gesetzt wird oder noch nicht relevant ist
     private AppointmentStatus status;
+
+    // Hält endTime bei jedem Speichern konsistent mit Startzeit und Dienstleistung
+    @PrePersist
+    @PreUpdate
+    public void updateEndTime() {
+        if (startTime != null && service != null) {
+            endTime = startTime.plusMinutes(service.getDurationMinutes());
+        }
+    }
 }
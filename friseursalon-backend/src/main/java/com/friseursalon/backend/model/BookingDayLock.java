@@ -0,0 +1,22 @@
+package com.friseursalon.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Eine Zeile pro Kalendertag, auf die Buchungen per SELECT ... FOR UPDATE sperren.
+// Serialisiert Konfliktprüfung + Speichern auch zwischen mehreren Instanzen.
+@Entity
+@Table(name = "booking_day_lock")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingDayLock {
+
+    @Id
+    @Column(name = "booking_date")
+    private LocalDate bookingDate;
+}
@@ -0,0 +1,48 @@
+package com.friseursalon.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Vorverdichtete Terminstatistik: eine Zeile pro (Tag, Dienstleistung, Startstunde, Status).
+// Wird beim Speichern/Löschen von Terminen für die betroffenen Tage neu berechnet und nachts komplett abgeglichen.
+@Entity
+@Table(name = "daily_appointment_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_stats_key", columnNames = {"stat_date", "service_id", "hour_of_day", "status"}),
+        indexes = @Index(name = "idx_daily_stats_date", columnList = "stat_date"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyAppointmentStat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    // Bewusst ohne Fremdschlüssel, die Statistik soll Löschungen von Dienstleistungen nicht blockieren
+    @Column(name = "service_id")
+    private Long serviceId;
+
+    @Column(name = "hour_of_day", nullable = false)
+    private int hourOfDay;
+
+    // Gleiche Semantik wie Appointment.status, null zählt wie ein aktiver Termin
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private AppointmentStatus status;
+
+    @Column(nullable = false)
+    private long appointmentCount;
+
+    @Column(nullable = false)
+    private long bookedMinutes;
+
+    @Column(nullable = false)
+    private double revenue;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.Entity; // Für die @Entity Annotation
 import jakarta.persistence.GeneratedValue; // Für die automatische ID-Generierung
 import jakarta.persistence.GenerationType; // Für den Generierungstyp
 import jakarta.persistence.Id; // Für die Primärschlüssel-Annotation
+import jakarta.validation.constraints.Positive;
 import lombok.Data; // Lombok Annotation für Getter, Setter, etc.
 import lombok.NoArgsConstructor; // Lombok für einen leeren Konstruktor
 import lombok.AllArgsConstructor; // Lombok für einen Konstruktor mit allen Argumenten
@@ -22,4 +23,6 @@ public class Service {
     private String description; // Beschreibung der Dienstleistung
     private double price; // Preis der Dienstleistung
     private int durationMinutes; // Dauer der Dienstleistung in Minuten
+    @Positive
+    private Integer slotIntervalMinutes; // Optionales eigenes Slot-Raster in Minuten, sonst gilt booking.slot.interval-minutes
 }
\ No newline at end of file
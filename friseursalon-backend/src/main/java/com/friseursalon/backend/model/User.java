@@ -31,6 +31,10 @@ public class User {
     private String resetToken;
     private LocalDateTime resetTokenExpiryDate;
 
+    // Wird bei Passwortänderungen erhöht; JWTs mit kleinerer Version gelten als widerrufen (null = 0)
+    @Column(name = "token_version")
+    private Integer tokenVersion;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -49,4 +53,8 @@ public class User {
         this.email = email;
         this.password = password;
     }
-}
\ No newline at end of file
+
+    public int currentTokenVersion() {
+        return tokenVersion != null ? tokenVersion : 0;
+    }
+}
@@ -1,106 +1,128 @@
 package com.friseursalon.backend.repository;
 
+import com.friseursalon.backend.dto.AppointmentExportRowDTO;
+import com.friseursalon.backend.dto.BookedIntervalDTO;
+import com.friseursalon.backend.dto.DashboardTilesDTO;
 import com.friseursalon.backend.model.Appointment;
 import com.friseursalon.backend.model.AppointmentStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Stream;
 
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
 
+    // Zeilen, die der Treiber pro Roundtrip holt, wenn Exporte über einen Cursor gelesen werden
+    String EXPORT_FETCH_SIZE = "500";
+
     List<Appointment> findByStartTimeBetween(LocalDateTime start, LocalDateTime end);
 
     List<Appointment> findByStartTimeAfterOrderByStartTimeAsc(LocalDateTime startTime);
 
     List<Appointment> findByCustomerEmailOrderByStartTimeAsc(String email);
 
+    // Alle aktiven Termine, die [start, end) überlappen – Grundlage der Slot-Berechnung
+    @Query("SELECT new com.friseursalon.backend.dto.BookedIntervalDTO(a.id, a.startTime, a.endTime) " +
+            "FROM Appointment a " +
+            "WHERE a.startTime < :end AND a.endTime > :start " +
+            "AND (a.status IS NULL OR a.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED)")
+    List<BookedIntervalDTO> findActiveIntervalsOverlapping(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // Export: flache Zeilen per Cursor, muss in einer (lesenden) Transaktion konsumiert und geschlossen werden
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.friseursalon.backend.dto.AppointmentExportRowDTO(a.id, a.startTime, a.endTime, a.status, a.createdAt, " +
+            "s.id, s.name, s.price, s.durationMinutes, c.id, c.firstName, c.lastName, c.email, a.notes) " +
+            "FROM Appointment a LEFT JOIN a.service s LEFT JOIN a.customer c " +
+            "WHERE a.startTime >= :start AND a.startTime < :end " +
+            "ORDER BY a.startTime ASC, a.id ASC")
+    Stream<AppointmentExportRowDTO> streamExportRowsBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT MIN(a.startTime) FROM Appointment a")
+    LocalDateTime findEarliestStartTime();
+
+    @Query("SELECT MAX(a.startTime) FROM Appointment a")
+    LocalDateTime findLatestStartTime();
+
     @Query("SELECT a FROM Appointment a WHERE " +
             "(:excludeId IS NULL OR a.id <> :excludeId) AND " +
             "a.startTime < :proposedEnd AND " +
-            "FUNCTION('TIMESTAMPADD', MINUTE, a.service.durationMinutes, a.startTime) > :proposedStart")
+            "a.endTime > :proposedStart AND " +
+            "(a.status IS NULL OR a.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED)")
     List<Appointment> findConflictingAppointments(
             @Param("proposedStart") LocalDateTime proposedStart,
             @Param("proposedEnd") LocalDateTime proposedEnd,
             @Param("excludeId") Long excludeId
     );
 
+    // Nach Änderung der Dauer einer Dienstleistung die Endzeiten ihrer Termine nachziehen; die Datumsarithmetik
+    // ist HQL, Hibernate rendert sie je Datenbank (DATEADD in H2, + interval in PostgreSQL)
+    @Modifying
+    @Query("UPDATE Appointment a SET a.endTime = a.startTime + :durationMinutes minute " +
+            "WHERE a.service.id = :serviceId")
+    int updateEndTimeForService(@Param("serviceId") Long serviceId, @Param("durationMinutes") int durationMinutes);
+
+    // Migration: Bestandstermine ohne gespeicherte Endzeit befüllen
+    @Modifying
+    @Query("UPDATE Appointment a SET a.endTime = a.startTime + :durationMinutes minute " +
+            "WHERE a.service.id = :serviceId AND a.endTime IS NULL AND a.startTime IS NOT NULL")
+    int fillMissingEndTimeForService(@Param("serviceId") Long serviceId, @Param("durationMinutes") int durationMinutes);
+
+    String ACTIVE = "(a.status IS NULL OR a.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED)";
+
+    // Ausgangsstand der Live-Zähler für die Dashboard-Kacheln
+    @Query("SELECT new com.friseursalon.backend.dto.DashboardTilesDTO(" +
+            "SUM(CASE WHEN a.startTime >= :todayStart AND a.startTime <= :todayEnd AND " + ACTIVE + " THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.startTime >= :todayStart AND a.startTime <= :todayEnd AND " + ACTIVE + " THEN s.price ELSE 0.0 END), " +
+            "SUM(CASE WHEN a.startTime >= :weekStart AND a.startTime <= :weekEnd AND " + ACTIVE + " THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.startTime >= :weekStart AND a.startTime <= :weekEnd AND " + ACTIVE + " THEN s.price ELSE 0.0 END), " +
+            "SUM(CASE WHEN a.startTime >= :monthStart AND a.startTime <= :monthEnd AND " + ACTIVE + " THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.startTime >= :monthStart AND a.startTime <= :monthEnd AND " + ACTIVE + " THEN s.price ELSE 0.0 END), " +
+            "SUM(CASE WHEN a.startTime > :now AND " + ACTIVE + " THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.createdAt >= :todayStart AND a.createdAt <= :todayEnd THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.createdAt >= :yesterdayStart AND a.createdAt < :todayStart THEN 1 ELSE 0 END)) " +
+            "FROM Appointment a LEFT JOIN a.service s " +
+            "WHERE (a.startTime >= :rangeStart AND a.startTime <= :rangeEnd) OR a.startTime > :now OR a.createdAt >= :yesterdayStart")
+    DashboardTilesDTO aggregateDashboardTiles(@Param("rangeStart") LocalDateTime rangeStart, @Param("rangeEnd") LocalDateTime rangeEnd,
+                                              @Param("todayStart") LocalDateTime todayStart, @Param("todayEnd") LocalDateTime todayEnd,
+                                              @Param("yesterdayStart") LocalDateTime yesterdayStart,
+                                              @Param("weekStart") LocalDateTime weekStart, @Param("weekEnd") LocalDateTime weekEnd,
+                                              @Param("monthStart") LocalDateTime monthStart, @Param("monthEnd") LocalDateTime monthEnd,
+                                              @Param("now") LocalDateTime now);
+
     Long countByStartTimeBetween(LocalDateTime start, LocalDateTime end);
     Long countByStartTimeAfter(LocalDateTime start);
 
     @Query("SELECT a FROM Appointment a WHERE a.startTime >= :startOfDay AND a.startTime < :endOfDayPlusBuffer ORDER BY a.startTime ASC")
     List<Appointment> findUpcomingAppointmentsForNextDays(@Param("startOfDay") LocalDateTime startOfDay, @Param("endOfDayPlusBuffer") LocalDateTime endOfDayPlusBuffer);
 
-    @Query(value = "SELECT DAY_OF_WEEK(a.start_time) as dayOfWeek, COUNT(a.id) as count " +
-            "FROM Appointment a " +
-            "WHERE a.start_time >= :start AND a.start_time <= :end " +
-            "AND (a.status IS NULL OR a.status <> 'CANCELLED') " +
-            "GROUP BY DAY_OF_WEEK(a.start_time) " +
-            "ORDER BY DAY_OF_WEEK(a.start_time) ASC", nativeQuery = true)
-    List<Map<String, Object>> countAppointmentsPerDayOfWeekBetweenNative(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
-
-
-    @Query("SELECT s.name as serviceName, COUNT(a.id) as count " +
-            "FROM Appointment a JOIN a.service s " +
-            "WHERE a.startTime >= :start AND a.startTime <= :end " +
-            "AND (a.status IS NULL OR a.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED) " +
-            "GROUP BY s.name " +
-            "ORDER BY count DESC")
-    List<Map<String, Object>> countAppointmentsPerServiceBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
-
     List<Appointment> findByOrderByIdDesc(Pageable pageable);
 
-    @Query(value = "SELECT CAST(a.start_time AS DATE) AS appointment_date, SUM(s.price) AS daily_revenue " +
-            "FROM Appointment a JOIN Service s ON a.service_id = s.id " +
-            "WHERE a.start_time >= :startDateTime AND a.start_time <= :endDateTime " +
-            "AND (a.status IS NULL OR a.status <> 'CANCELLED') " +
-            "GROUP BY CAST(a.start_time AS DATE) " +
-            "ORDER BY appointment_date ASC", nativeQuery = true)
-    List<Map<String, Object>> findRevenuePerDayBetween(@Param("startDateTime") LocalDateTime startDateTime, @Param("endDateTime") LocalDateTime endDateTime);
-
     @Query("SELECT COUNT(DISTINCT a.customer.id) FROM Appointment a WHERE a.startTime >= :start AND a.startTime <= :end AND (a.status IS NULL OR a.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED)")
     Long countDistinctCustomersByStartTimeBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
     @Query("SELECT SUM(a.service.durationMinutes) FROM Appointment a WHERE a.startTime >= :start AND a.startTime <= :end AND (a.status IS NULL OR a.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED)")
     Long sumDurationMinutesByStartTimeBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
+    // Durchschnittliche Tage zwischen Buchung und Termin (überschrittene Tagesgrenzen) für aktive Termine mit Beginn in [start, end]
+    @Query("SELECT AVG((CAST(a.startTime AS LocalDate) - CAST(a.createdAt AS LocalDate)) BY DAY) FROM Appointment a " +
+            "WHERE a.startTime >= :start AND a.startTime <= :end " +
+            "AND a.createdAt IS NOT NULL AND a.startTime > a.createdAt AND " + ACTIVE)
+    Double findAverageBookingLeadTimeInDays(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
     @Query("SELECT COUNT(a.id) FROM Appointment a WHERE a.createdAt >= :startOfDay AND a.createdAt < :endOfDayPlusOne")
     Long countNewAppointmentsCreatedBetween(@Param("startOfDay") LocalDateTime startOfDay, @Param("endOfDayPlusOne") LocalDateTime endOfDayPlusOne);
 
     @Query("SELECT COUNT(a.id) FROM Appointment a WHERE a.startTime >= :start AND a.startTime <= :end AND a.status = :status")
     Long countAppointmentsByStatusBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end, @Param("status") AppointmentStatus status);
 
-    @Query("SELECT AVG(CAST(FUNCTION('DATEDIFF', DAY, a.createdAt, a.startTime) AS DOUBLE)) FROM Appointment a WHERE a.startTime >= :start AND a.startTime <= :end AND a.createdAt IS NOT NULL AND a.startTime > a.createdAt AND (a.status IS NULL OR a.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED)")
-    Double getAverageBookingLeadTimeInDays(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
-
     @Query("SELECT DISTINCT a.customer.id FROM Appointment a WHERE a.startTime >= :start AND a.startTime <= :end AND (a.status IS NULL OR a.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED)")
     List<Long> findDistinctCustomerIdsWithAppointmentsBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
-
-    // KORRIGIERTE QUERY für Termine pro Stunde
-    @Query(value = "SELECT HOUR(a.start_time) as appointment_hour, COUNT(a.id) as appointment_count " + // Aliase geändert
-            "FROM Appointment a " +
-            "WHERE a.start_time >= :start AND a.start_time <= :end " +
-            "AND (a.status IS NULL OR a.status <> 'CANCELLED') " + // Enum-Pfad durch String-Literal ersetzt
-            "GROUP BY HOUR(a.start_time) " +
-            "ORDER BY HOUR(a.start_time) ASC", nativeQuery = true)
-    List<Map<String, Object>> countAppointmentsPerHourBetweenNative(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
-    // Fügen Sie diese Methoden zum bestehenden Interface hinzu
-
-    @Query("SELECT a.service.id as serviceId, COUNT(a.id) as totalBookings " +
-            "FROM Appointment a " +
-            "WHERE a.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED " +
-            "GROUP BY a.service.id " +
-            "ORDER BY totalBookings DESC")
-    List<Map<String, Object>> findTopServicesByBookings(Pageable pageable);
-
-    @Query("SELECT a.service.id as serviceId, SUM(a.service.price) as totalRevenue " +
-            "FROM Appointment a " +
-            "WHERE a.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED " +
-            "GROUP BY a.service.id " +
-            "ORDER BY totalRevenue DESC")
-    List<Map<String, Object>> findTopServicesByRevenue(Pageable pageable);
 }
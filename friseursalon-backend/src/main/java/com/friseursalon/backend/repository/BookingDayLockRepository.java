@@ -0,0 +1,30 @@
+package com.friseursalon.backend.repository;
+
+import com.friseursalon.backend.model.BookingDayLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookingDayLockRepository extends JpaRepository<BookingDayLock, LocalDate> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM BookingDayLock l WHERE l.bookingDate = :bookingDate")
+    Optional<BookingDayLock> findForUpdate(@Param("bookingDate") LocalDate bookingDate);
+
+    // Sperrt nur bereits vorhandene Zeilen des Zeitraums, aufsteigend wie executeForDays
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM BookingDayLock l WHERE l.bookingDate BETWEEN :firstDay AND :lastDay ORDER BY l.bookingDate")
+    List<BookingDayLock> findExistingForUpdate(@Param("firstDay") LocalDate firstDay, @Param("lastDay") LocalDate lastDay);
+
+    // Legt die Zeile an, falls sie fehlt; 0 = existierte bereits (Hibernate rendert das je Datenbank, z.B. MERGE in H2)
+    @Modifying
+    @Query("INSERT INTO BookingDayLock (bookingDate) VALUES (:bookingDate) ON CONFLICT DO NOTHING")
+    int insertIfAbsent(@Param("bookingDate") LocalDate bookingDate);
+}
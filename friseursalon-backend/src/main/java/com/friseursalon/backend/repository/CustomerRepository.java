@@ -1,14 +1,19 @@
 // Datei: friseursalon-backend/src/main/java/com/friseursalon/backend/repository/CustomerRepository.java
 package com.friseursalon.backend.repository;
 
+import com.friseursalon.backend.dto.CustomerExportRowDTO;
 import com.friseursalon.backend.model.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByEmail(String email);
@@ -16,4 +21,11 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     // NEUE METHODE für Neukunden-KPI
     @Query("SELECT COUNT(c.id) FROM Customer c WHERE c.registrationDate >= :start AND c.registrationDate <= :end AND c.id IN :customerIds")
     Long countNewCustomersRegisteredBetweenAndInIdList(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end, @Param("customerIds") List<Long> customerIds);
+
+    // Export: Kunden nach Registrierungsdatum per Cursor, in einer Transaktion zu konsumieren
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AppointmentRepository.EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.friseursalon.backend.dto.CustomerExportRowDTO(c.id, c.firstName, c.lastName, c.email, c.phoneNumber, c.registrationDate) " +
+            "FROM Customer c WHERE c.registrationDate >= :start AND c.registrationDate < :end " +
+            "ORDER BY c.registrationDate ASC, c.id ASC")
+    Stream<CustomerExportRowDTO> streamExportRowsRegisteredBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 }
@@ -0,0 +1,131 @@
+package com.friseursalon.backend.repository;
+
+import com.friseursalon.backend.dto.AppointmentKpiDTO;
+import com.friseursalon.backend.dto.DailyStatExportRowDTO;
+import com.friseursalon.backend.model.DailyAppointmentStat;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface DailyAppointmentStatRepository extends JpaRepository<DailyAppointmentStat, Long> {
+
+    String ACTIVE = "(d.status IS NULL OR d.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED)";
+    String CANCELLED = "d.status = com.friseursalon.backend.model.AppointmentStatus.CANCELLED";
+    String IN_PERIOD = "d.statDate >= :periodStart AND d.statDate <= :periodEnd";
+    String IN_PREVIOUS = "d.statDate >= :previousStart AND d.statDate <= :previousEnd";
+
+    @Modifying
+    @Query("DELETE FROM DailyAppointmentStat d WHERE d.statDate IN :dates")
+    int deleteByStatDateIn(@Param("dates") Collection<LocalDate> dates);
+
+    // Abgleich: Zeilen außerhalb des Zeitraums, in dem es überhaupt Termine gibt
+    @Modifying
+    @Query("DELETE FROM DailyAppointmentStat d WHERE d.statDate < :firstDate OR d.statDate > :lastDate")
+    int deleteOutside(@Param("firstDate") LocalDate firstDate, @Param("lastDate") LocalDate lastDate);
+
+    // Eine Zeile pro (Tag, Dienstleistung, Stunde, Status) für alle Termine mit Beginn in [start, end), auch stornierte.
+    // Die Zeilen dieser Tage müssen vorher gelöscht sein; Datums- und Stundenfunktionen übersetzt Hibernate je Datenbank
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO DailyAppointmentStat (statDate, serviceId, hourOfDay, status, appointmentCount, bookedMinutes, revenue) " +
+            "SELECT CAST(a.startTime AS LocalDate), a.service.id, EXTRACT(HOUR FROM a.startTime), a.status, COUNT(a), " +
+            "COALESCE(SUM(s.durationMinutes), 0L), COALESCE(SUM(s.price), 0.0) " +
+            "FROM Appointment a LEFT JOIN a.service s " +
+            "WHERE a.startTime >= :start AND a.startTime < :end " +
+            "GROUP BY CAST(a.startTime AS LocalDate), a.service.id, EXTRACT(HOUR FROM a.startTime), a.status")
+    int insertFromAppointmentsBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // Alle Termine einer Zeile gehören zur selben Dienstleistung, Minuten und Umsatz ergeben sich aus der Anzahl
+    @Modifying
+    @Query("UPDATE DailyAppointmentStat d SET d.bookedMinutes = d.appointmentCount * :durationMinutes, " +
+            "d.revenue = d.appointmentCount * :price WHERE d.serviceId = :serviceId")
+    int repriceService(@Param("serviceId") Long serviceId, @Param("durationMinutes") long durationMinutes, @Param("price") double price);
+
+    @Query("SELECT d.statDate as statDate, SUM(d.appointmentCount) as count, SUM(d.bookedMinutes) as bookedMinutes, SUM(d.revenue) as revenue " +
+            "FROM DailyAppointmentStat d " +
+            "WHERE d.statDate >= :startDate AND d.statDate <= :endDate " +
+            "AND (d.status IS NULL OR d.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED) " +
+            "GROUP BY d.statDate " +
+            "ORDER BY d.statDate ASC")
+    List<Map<String, Object>> sumActivePerDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT d.hourOfDay as hourOfDay, SUM(d.appointmentCount) as count " +
+            "FROM DailyAppointmentStat d " +
+            "WHERE d.statDate >= :startDate AND d.statDate <= :endDate " +
+            "AND (d.status IS NULL OR d.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED) " +
+            "GROUP BY d.hourOfDay " +
+            "ORDER BY d.hourOfDay ASC")
+    List<Map<String, Object>> sumActivePerHourBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT d.serviceId as serviceId, SUM(d.appointmentCount) as count " +
+            "FROM DailyAppointmentStat d " +
+            "WHERE d.statDate >= :startDate AND d.statDate <= :endDate AND d.serviceId IS NOT NULL " +
+            "AND (d.status IS NULL OR d.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED) " +
+            "GROUP BY d.serviceId")
+    List<Map<String, Object>> sumActivePerServiceBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Kennzahlen für Zeitraum und Vorperiode in einer Abfrage; die Vorperiode schließt direkt an den Zeitraum an
+    @Query("SELECT new com.friseursalon.backend.dto.AppointmentKpiDTO(" +
+            "SUM(CASE WHEN " + IN_PERIOD + " AND " + ACTIVE + " THEN d.appointmentCount ELSE 0 END), " +
+            "SUM(CASE WHEN " + IN_PERIOD + " AND " + ACTIVE + " THEN d.revenue ELSE 0.0 END), " +
+            "SUM(CASE WHEN " + IN_PERIOD + " AND " + CANCELLED + " THEN d.appointmentCount ELSE 0 END), " +
+            "SUM(CASE WHEN " + IN_PERIOD + " AND " + ACTIVE + " THEN d.bookedMinutes ELSE 0 END), " +
+            "SUM(CASE WHEN " + IN_PREVIOUS + " AND " + ACTIVE + " THEN d.appointmentCount ELSE 0 END), " +
+            "SUM(CASE WHEN " + IN_PREVIOUS + " AND " + ACTIVE + " THEN d.revenue ELSE 0.0 END), " +
+            "SUM(CASE WHEN " + IN_PREVIOUS + " AND " + CANCELLED + " THEN d.appointmentCount ELSE 0 END)) " +
+            "FROM DailyAppointmentStat d " +
+            "WHERE (" + IN_PERIOD + ") OR (" + IN_PREVIOUS + ")")
+    AppointmentKpiDTO aggregatePeriodKpis(@Param("periodStart") LocalDate periodStart, @Param("periodEnd") LocalDate periodEnd,
+                                          @Param("previousStart") LocalDate previousStart, @Param("previousEnd") LocalDate previousEnd);
+
+    // Umsatz je Dienstleistung für Zeitraum und Vorperiode in einer Abfrage
+    @Query("SELECT d.serviceId as serviceId, " +
+            "SUM(CASE WHEN " + IN_PERIOD + " THEN d.appointmentCount ELSE 0 END) as count, " +
+            "SUM(CASE WHEN " + IN_PERIOD + " THEN d.revenue ELSE 0.0 END) as revenue, " +
+            "SUM(CASE WHEN " + IN_PREVIOUS + " THEN d.revenue ELSE 0.0 END) as previousRevenue " +
+            "FROM DailyAppointmentStat d " +
+            "WHERE ((" + IN_PERIOD + ") OR (" + IN_PREVIOUS + ")) AND " + ACTIVE + " " +
+            "GROUP BY d.serviceId " +
+            "ORDER BY revenue DESC")
+    List<Map<String, Object>> sumRevenuePerService(@Param("periodStart") LocalDate periodStart, @Param("periodEnd") LocalDate periodEnd,
+                                                   @Param("previousStart") LocalDate previousStart, @Param("previousEnd") LocalDate previousEnd);
+
+    // Ranglisten der Dienstleistungen; ohne Datumsgrenzen über den gesamten Bestand
+    @Query("SELECT d.serviceId as serviceId, SUM(d.appointmentCount) as totalBookings, SUM(d.revenue) as totalRevenue " +
+            "FROM DailyAppointmentStat d " +
+            "WHERE d.serviceId IS NOT NULL " +
+            "AND (:startDate IS NULL OR d.statDate >= :startDate) AND (:endDate IS NULL OR d.statDate <= :endDate) " +
+            "AND (d.status IS NULL OR d.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED) " +
+            "GROUP BY d.serviceId " +
+            "ORDER BY totalBookings DESC")
+    List<Map<String, Object>> findTopServicesByBookings(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, Pageable pageable);
+
+    @Query("SELECT d.serviceId as serviceId, SUM(d.appointmentCount) as totalBookings, SUM(d.revenue) as totalRevenue " +
+            "FROM DailyAppointmentStat d " +
+            "WHERE d.serviceId IS NOT NULL " +
+            "AND (:startDate IS NULL OR d.statDate >= :startDate) AND (:endDate IS NULL OR d.statDate <= :endDate) " +
+            "AND (d.status IS NULL OR d.status <> com.friseursalon.backend.model.AppointmentStatus.CANCELLED) " +
+            "GROUP BY d.serviceId " +
+            "ORDER BY totalRevenue DESC")
+    List<Map<String, Object>> findTopServicesByRevenue(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, Pageable pageable);
+
+    // Export: alle Zeilen im Zeitraum inkl. Stornierungen, Name über einen Join auf die Dienstleistung
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AppointmentRepository.EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.friseursalon.backend.dto.DailyStatExportRowDTO(d.statDate, d.serviceId, s.name, d.hourOfDay, d.status, " +
+            "d.appointmentCount, d.bookedMinutes, d.revenue) " +
+            "FROM DailyAppointmentStat d LEFT JOIN Service s ON s.id = d.serviceId " +
+            "WHERE d.statDate >= :startDate AND d.statDate <= :endDate " +
+            "ORDER BY d.statDate ASC, d.hourOfDay ASC, d.serviceId ASC")
+    Stream<DailyStatExportRowDTO> streamExportRowsBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
@@ -3,6 +3,10 @@ package com.friseursalon.backend.repository;
 
 import com.friseursalon.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -12,4 +16,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByResetToken(String resetToken);
 
     Boolean existsByEmail(String email);
+
+    // Nur Benutzer mit widerrufenen Tokens; alle anderen haben Version 0
+    @Query("SELECT u.id as id, u.tokenVersion as tokenVersion FROM User u WHERE u.tokenVersion > 0")
+    List<Map<String, Object>> findRaisedTokenVersions();
 }
\ No newline at end of file
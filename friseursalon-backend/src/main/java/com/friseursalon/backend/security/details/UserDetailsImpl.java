@@ -26,6 +26,9 @@ public class UserDetailsImpl implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    // Version, mit der ausgestellte JWTs gültig sind (siehe User.tokenVersion)
+    private int tokenVersion;
+
     // Konstruktor anpassen
     public UserDetailsImpl(Long id, String email, String password, String firstName, String lastName, String phoneNumber,
                            Collection<? extends GrantedAuthority> authorities) {
@@ -38,6 +41,12 @@ public class UserDetailsImpl implements UserDetails {
         this.authorities = authorities;
     }
 
+    public UserDetailsImpl(Long id, String email, String password, String firstName, String lastName, String phoneNumber,
+                           Collection<? extends GrantedAuthority> authorities, int tokenVersion) {
+        this(id, email, password, firstName, lastName, phoneNumber, authorities);
+        this.tokenVersion = tokenVersion;
+    }
+
     // Factory-Methode zum Erstellen aus deinem User-Modell anpassen
     public static UserDetailsImpl build(User user) {
         List<GrantedAuthority> authorities = user.getRoles().stream()
@@ -51,7 +60,8 @@ public class UserDetailsImpl implements UserDetails {
                 user.getFirstName(), // NEUES FELD
                 user.getLastName(),  // NEUES FELD
                 user.getPhoneNumber(), // NEUES FELD
-                authorities);
+                authorities,
+                user.currentTokenVersion());
     }
 
     public Long getId() {
@@ -65,6 +75,7 @@ public class UserDetailsImpl implements UserDetails {
     public String getFirstName() { return firstName; } // NEUER GETTER
     public String getLastName() { return lastName; }   // NEUER GETTER
     public String getPhoneNumber() { return phoneNumber; } // NEUER GETTER
+    public int getTokenVersion() { return tokenVersion; }
 
 
     @Override
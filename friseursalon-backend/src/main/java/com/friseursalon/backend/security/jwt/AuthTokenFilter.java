@@ -1,5 +1,6 @@
 package com.friseursalon.backend.security.jwt;
 
+import com.friseursalon.backend.security.details.UserDetailsImpl;
 import com.friseursalon.backend.service.UserService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -8,7 +9,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -16,6 +19,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 public class AuthTokenFilter extends OncePerRequestFilter {
@@ -25,6 +30,13 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserService userService; // Hier ist dein UserService gemeint
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    // true: Benutzer-ID und Rollen kommen aus dem signierten Token, ohne Datenbankzugriff pro Request
+    @Value("${jwt.stateless-authorities:true}")
+    private boolean statelessAuthorities;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -32,11 +44,10 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = jwtUtils.parseJwt(request); // JWT aus dem Request extrahieren
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) { // JWT validieren
-                String username = jwtUtils.getUserNameFromJwtToken(jwt); // Benutzername aus JWT holen
-
-                UserDetails userDetails = userService.loadUserByUsername(username); // Benutzerdetails laden
-
+            // JWT einmal parsen: Signatur und Ablauf prüfen, Benutzername und Rollen auslesen
+            Optional<JwtClaims> claims = jwt != null ? jwtUtils.parseAndValidate(jwt) : Optional.empty();
+            UserDetails userDetails = claims.isPresent() ? resolveUser(claims.get()) : null;
+            if (userDetails != null) {
                 // Authentifizierungsobjekt erstellen
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
@@ -55,4 +66,23 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response); // Anfrage zur nächsten Filterkette weiterleiten
     }
+
+    // Benutzer aus den Claims oder, ohne Benutzer-ID im Token bzw. bei abgeschaltetem Modus, aus der Datenbank; null = widerrufen
+    private UserDetails resolveUser(JwtClaims claims) {
+        if (statelessAuthorities && claims.userId() != null) {
+            if (!tokenVersionRegistry.isCurrent(claims.userId(), claims.tokenVersion())) {
+                logger.debug("Widerrufenes JWT für Benutzer-ID {} abgelehnt.", claims.userId());
+                return null;
+            }
+            List<SimpleGrantedAuthority> authorities = claims.roles().stream().map(SimpleGrantedAuthority::new).toList();
+            return new UserDetailsImpl(claims.userId(), claims.subject(), null, null, null, null, authorities, claims.tokenVersion());
+        }
+
+        UserDetails userDetails = userService.loadUserByUsername(claims.subject()); // Benutzerdetails laden
+        if (userDetails instanceof UserDetailsImpl user && claims.tokenVersion() < user.getTokenVersion()) {
+            logger.debug("Widerrufenes JWT für Benutzer {} abgelehnt.", claims.subject());
+            return null;
+        }
+        return userDetails;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.friseursalon.backend.security.jwt;
+
+import java.util.List;
+
+// Bereits verifizierter Inhalt eines JWT: Benutzername (E-Mail), Benutzer-ID, Rollen und Token-Version
+// zum Ausstellungszeitpunkt; userId ist bei älteren Tokens null
+public record JwtClaims(String subject, Long userId, List<String> roles, int tokenVersion) {
+
+    public JwtClaims {
+        roles = roles != null ? List.copyOf(roles) : List.of();
+    }
+}
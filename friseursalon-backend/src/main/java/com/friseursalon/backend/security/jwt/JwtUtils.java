@@ -1,64 +1,89 @@
 package com.friseursalon.backend.security.jwt;
 
+import com.friseursalon.backend.security.details.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 @Component // Markiert diese Klasse als Spring-Komponente
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-    @Value("${jwt.secret}") // Wert aus application.properties injizieren
-    private String jwtSecret;
+    static final String ROLES_CLAIM = "roles";
+    static final String USER_ID_CLAIM = "uid";
+    static final String TOKEN_VERSION_CLAIM = "ver";
 
-    @Value("${jwt.expirationMs}") // Wert aus application.properties injizieren
-    private int jwtExpirationMs;
+    private final int jwtExpirationMs;
+
+    // Schlüssel und Parser sind unveränderlich und threadsicher, sie werden nur einmal aufgebaut
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    @Autowired
+    public JwtUtils(@Value("${jwt.secret}") String jwtSecret, // Wert aus application.properties injizieren
+                    @Value("${jwt.expirationMs}") int jwtExpirationMs) {
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)); // Schlüssel dekodieren
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
 
     // Methode zum Generieren des JWTs
     public String generateJwtToken(UserDetails userDetails) {
-        return Jwts.builder()
+        Date now = new Date();
+        JwtBuilder builder = Jwts.builder()
                 .setSubject((userDetails.getUsername())) // Benutzername als Subjekt
-                .setIssuedAt(new Date()) // Ausstellungsdatum
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs)) // Ablaufdatum
-                .signWith(key(), SignatureAlgorithm.HS512) // Signieren mit geheimem Schlüssel und Algorithmus
+                .claim(ROLES_CLAIM, authorityNames(userDetails.getAuthorities())); // Rollen, damit der Filter sie nicht nachladen muss
+        if (userDetails instanceof UserDetailsImpl user) {
+            builder.claim(USER_ID_CLAIM, user.getId())
+                    .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion());
+        }
+        return builder
+                .setIssuedAt(now) // Ausstellungsdatum
+                .setExpiration(new Date(now.getTime() + jwtExpirationMs)) // Ablaufdatum
+                .signWith(signingKey, SignatureAlgorithm.HS512) // Signieren mit geheimem Schlüssel und Algorithmus
                 .compact(); // Zusammenfassen zu String
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)); // Schlüssel dekodieren
-    }
-
-    // Methode zum Extrahieren des Benutzernamens aus dem JWT
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
-    }
-
-    // Methode zum Validieren des JWTs
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Prüft Signatur und Ablauf und liefert die Claims; das Token wird dabei genau einmal geparst.
+     * Ungültige Tokens ergeben ein leeres Ergebnis.
+     */
+    public Optional<JwtClaims> parseAndValidate(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
-        } catch (MalformedJwtException e) {
-            logger.error("Ungültiges JWT Token: {}", e.getMessage());
+            Claims claims = parser.parseClaimsJws(authToken).getBody();
+            Number userId = claims.get(USER_ID_CLAIM, Number.class);
+            Number tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Number.class);
+            return Optional.of(new JwtClaims(claims.getSubject(),
+                    userId != null ? userId.longValue() : null,
+                    rolesOf(claims),
+                    tokenVersion != null ? tokenVersion.intValue() : 0));
         } catch (ExpiredJwtException e) {
             logger.error("JWT Token ist abgelaufen: {}", e.getMessage());
+        } catch (MalformedJwtException e) {
+            logger.error("Ungültiges JWT Token: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("JWT Token wird nicht unterstützt: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("JWT Signatur ungültig: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT Claims String ist leer: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
     }
 
     // Methode zum Parsen des JWTs aus dem Request Header (Bearer Token)
@@ -70,4 +95,17 @@ public class JwtUtils {
         }
         return null;
     }
-}
\ No newline at end of file
+
+    private static List<String> authorityNames(Collection<? extends GrantedAuthority> authorities) {
+        return authorities.stream().map(GrantedAuthority::getAuthority).toList();
+    }
+
+    // Ältere Tokens ohne Rollen-Claim liefern eine leere Liste
+    private static List<String> rolesOf(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof Collection<?> values)) {
+            return List.of();
+        }
+        return values.stream().map(String::valueOf).toList();
+    }
+}
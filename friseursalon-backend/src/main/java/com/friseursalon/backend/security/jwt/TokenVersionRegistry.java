@@ -0,0 +1,74 @@
+package com.friseursalon.backend.security.jwt;
+
+import com.friseursalon.backend.repository.UserRepository;
+import com.friseursalon.backend.service.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aktuelle Token-Version je Benutzer im Speicher, damit der {@link AuthTokenFilter} widerrufene JWTs
+ * ohne Datenbankzugriff erkennt.
+ * <p>
+ * Gehalten werden nur Benutzer, deren Version jemals erhöht wurde (Passwortänderung); alle anderen haben
+ * Version 0. Eigene Erhöhungen werden nach dem Commit übernommen, Änderungen anderer Instanzen kommen mit
+ * dem periodischen Neuladen an.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenVersionRegistry.class);
+
+    private final UserRepository userRepository;
+
+    // Unveränderlicher Stand, wird bei jeder Änderung komplett ersetzt (copy-on-write)
+    private volatile Map<Long, Integer> versions;
+
+    @Autowired
+    public TokenVersionRegistry(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Scheduled(cron = "${jwt.token-versions.refresh-cron:0 * * * * *}")
+    public synchronized void reload() {
+        Map<Long, Integer> loaded = new HashMap<>();
+        for (Map<String, Object> row : userRepository.findRaisedTokenVersions()) {
+            loaded.put((Long) row.get("id"), ((Number) row.get("tokenVersion")).intValue());
+        }
+        versions = Map.copyOf(loaded);
+        logger.debug("Token-Versionen geladen: {} Benutzer mit widerrufenen Tokens", loaded.size());
+    }
+
+    // Ein Token ist gültig, solange seine Version nicht kleiner als die aktuelle des Benutzers ist
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        return tokenVersion >= currentVersion(userId);
+    }
+
+    public int currentVersion(Long userId) {
+        Map<Long, Integer> current = versions;
+        if (current == null) {
+            reload();
+            current = versions;
+        }
+        return current.getOrDefault(userId, 0);
+    }
+
+    // Nach dem Commit der erhöhten Version in User.tokenVersion aufrufen lassen
+    public void versionRaisedAfterCommit(Long userId, int newVersion) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                // Noch nicht geladen: das erste Laden liest die committete Version ohnehin aus der Datenbank
+                if (versions != null) {
+                    Map<Long, Integer> updated = new HashMap<>(versions);
+                    updated.merge(userId, newVersion, Math::max);
+                    versions = Map.copyOf(updated);
+                }
+            }
+        });
+    }
+}
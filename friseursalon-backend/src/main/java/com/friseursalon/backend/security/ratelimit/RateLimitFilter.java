@@ -0,0 +1,186 @@
+package com.friseursalon.backend.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.friseursalon.backend.payload.response.MessageResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Begrenzt die Anfragerate öffentlicher Endpunkte (Login, Buchung, freie Slots, Gastbewertungen,
+ * Dienstleistungen) pro Client mit je einem {@link TokenBucket} pro Route.
+ * <p>
+ * Client ist der Benutzer aus einem gültigen JWT, sonst die IP-Adresse; der Filter läuft deshalb nach dem
+ * {@code AuthTokenFilter}. Hinter einem Reverse-Proxy muss {@code server.forward-headers-strategy} gesetzt
+ * sein, sonst teilen sich alle Clients die IP des Proxys. Volle Buckets werden periodisch entfernt; ist die
+ * Höchstzahl verfolgter Clients bis dahin erreicht, wird der am längsten nicht gesehene Client verdrängt (LRU)
+ * und beginnt bei seiner nächsten Anfrage mit einem vollen Bucket.
+ * <p>
+ * Der Filter läuft nur in der Security-Filterkette, siehe {@code SecurityConfig#rateLimitFilterRegistration}.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final boolean enabled;
+    private final int maxClients;
+    private final List<LimitedRoute> routes = new ArrayList<>();
+    // Zugriffsreihenfolge wie im BoundedTtlCache; unter dem Monitor der Map wird nur nachgeschlagen und
+    // angelegt, das Token selbst nimmt der lock-freie TokenBucket außerhalb
+    private final LinkedHashMap<String, TokenBucket> buckets;
+    private final Counter evicted;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.maxClients = properties.getMaxClients();
+        this.objectMapper = objectMapper;
+        if (maxClients <= 0) {
+            throw new IllegalArgumentException("rate-limit.max-clients muss positiv sein.");
+        }
+        this.evicted = Counter.builder("rate.limit.evicted")
+                .description("Wegen rate-limit.max-clients verdrängte Buckets")
+                .register(meterRegistry);
+        this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                if (size() > maxClients) {
+                    evicted.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        PathPatternParser parser = new PathPatternParser();
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            if (route.getName() == null || route.getPattern() == null || route.getRequestsPerMinute() <= 0 || route.getBurst() <= 0) {
+                throw new IllegalArgumentException("rate-limit.routes: name, pattern, requests-per-minute und burst müssen gesetzt und positiv sein ("
+                        + route.getName() + ").");
+            }
+            Counter rejected = Counter.builder("rate.limit.rejected")
+                    .description("Wegen überschrittener Anfragerate abgelehnte Anfragen")
+                    .tag("route", route.getName())
+                    .register(meterRegistry);
+            routes.add(new LimitedRoute(route.getName(),
+                    route.getMethod() != null && !route.getMethod().isBlank() ? route.getMethod().toUpperCase(Locale.ROOT) : null,
+                    parser.parse(route.getPattern()),
+                    TimeUnit.MINUTES.toNanos(1) / route.getRequestsPerMinute(),
+                    route.getBurst(),
+                    rejected));
+        }
+        Gauge.builder("rate.limit.clients", this, RateLimitFilter::trackedClients)
+                .description("Aktuell verfolgte Clients (Route + IP bzw. Benutzer)")
+                .register(meterRegistry);
+        logger.info("Rate-Limit {} für {} Routen", enabled ? "aktiv" : "deaktiviert", routes.size());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || routes.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        LimitedRoute route = matchRoute(request);
+        if (route != null) {
+            String client = clientKey(request);
+            long now = System.nanoTime();
+            long waitNanos = bucketFor(route, client, now).tryConsume(now);
+            if (waitNanos > 0) {
+                route.rejected().increment();
+                logger.debug("Rate-Limit '{}' überschritten für {}", route.name(), client);
+                reject(response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // Entfernt volle Buckets; sie entsprechen einem neuen Bucket, es geht also kein Zustand verloren
+    @Scheduled(cron = "${rate-limit.cleanup-cron:30 * * * * *}")
+    public void removeIdleBuckets() {
+        long now = System.nanoTime();
+        int before;
+        int after;
+        synchronized (buckets) {
+            before = buckets.size();
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+            after = buckets.size();
+        }
+        logger.debug("Rate-Limit: {} von {} Buckets entfernt", before - after, before);
+    }
+
+    int trackedClients() {
+        synchronized (buckets) {
+            return buckets.size();
+        }
+    }
+
+    private LimitedRoute matchRoute(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (LimitedRoute route : routes) {
+            if ((route.method() == null || route.method().equals(request.getMethod())) && route.pattern().matches(path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private TokenBucket bucketFor(LimitedRoute route, String client, long now) {
+        // get markiert den Bucket als zuletzt genutzt; ein neuer Bucket verdrängt bei Bedarf den ältesten
+        synchronized (buckets) {
+            return buckets.computeIfAbsent(route.name() + '|' + client, k -> new TokenBucket(route.intervalNanos(), route.burst(), now));
+        }
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(),
+                new MessageResponse("Zu viele Anfragen. Bitte versuchen Sie es in " + retryAfterSeconds + " Sekunden erneut."));
+    }
+
+    private record LimitedRoute(String name, String method, PathPattern pattern, long intervalNanos, int burst, Counter rejected) {
+    }
+}
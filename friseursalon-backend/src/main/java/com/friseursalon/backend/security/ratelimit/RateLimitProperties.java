@@ -0,0 +1,39 @@
+package com.friseursalon.backend.security.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Budgets des {@link RateLimitFilter} aus {@code rate-limit.*} in application.properties.
+ * Eine Anfrage fällt unter die erste passende Route; Anfragen ohne passende Route werden nicht begrenzt.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Höchstzahl gleichzeitig verfolgter Clients (Route + IP bzw. Benutzer) über alle Routen
+    private int maxClients = 10000;
+
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        // Name für Logs und das Tag "route" der Metrik
+        private String name;
+        // HTTP-Methode; leer = alle Methoden
+        private String method;
+        // Pfadmuster wie in Spring MVC, z.B. /api/services/**
+        private String pattern;
+        // Dauerhaft erlaubte Anfragen pro Minute und Client
+        private int requestsPerMinute;
+        // Größe des Token-Buckets: so viele Anfragen sind auf einmal erlaubt
+        private int burst;
+    }
+}
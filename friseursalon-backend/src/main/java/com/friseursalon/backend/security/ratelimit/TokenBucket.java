@@ -0,0 +1,44 @@
+package com.friseursalon.backend.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-Bucket ohne Sperren: der gesamte Zustand ist ein Zeitpunkt in {@link System#nanoTime()}, an dem
+ * der Bucket wieder voll wäre (Generic Cell Rate Algorithm). Jede erlaubte Anfrage schiebt ihn um ein
+ * Intervall nach hinten; liegt er mehr als {@code burst} Intervalle in der Zukunft, wird abgelehnt.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(long intervalNanos, int burst, long nowNanos) {
+        this.intervalNanos = intervalNanos;
+        this.burstNanos = intervalNanos * burst;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Nimmt ein Token, falls vorhanden. Liefert 0 bei Erfolg, sonst die Wartezeit in Nanosekunden bis zum
+     * nächsten freien Token.
+     */
+    long tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long excess = next - nowNanos - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Ein voller Bucket unterscheidet sich nicht von einem neuen und kann verworfen werden
+    boolean isFull(long nowNanos) {
+        return fullAt.get() - nowNanos <= 0;
+    }
+}
@@ -0,0 +1,43 @@
+package com.friseursalon.backend.service;
+
+import com.friseursalon.backend.model.Appointment;
+import com.friseursalon.backend.model.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Wird von {@link AppointmentService} innerhalb der Transaktion veröffentlicht, wenn ein Termin angelegt,
+ * geändert, im Status geändert oder gelöscht wird. {@code before} ist beim Anlegen null, {@code after}
+ * beim Löschen. Die Zustände sind Kopien, Listener dürfen sie auch nach dem Commit lesen.
+ */
+public record AppointmentChangedEvent(State before, State after) {
+
+    public record State(LocalDateTime startTime, AppointmentStatus status, double price, LocalDateTime createdAt) {
+
+        public static State of(Appointment appointment) {
+            double price = appointment.getService() != null ? appointment.getService().getPrice() : 0.0;
+            return new State(appointment.getStartTime(), appointment.getStatus(), price, appointment.getCreatedAt());
+        }
+
+        public boolean isActive() {
+            return status != AppointmentStatus.CANCELLED;
+        }
+    }
+
+    public static AppointmentChangedEvent created(Appointment appointment) {
+        State state = State.of(appointment);
+        // createdAt wird von Hibernate beim Insert gesetzt; fehlt er noch, gilt der Zeitpunkt der Buchung
+        if (state.createdAt() == null) {
+            state = new State(state.startTime(), state.status(), state.price(), LocalDateTime.now());
+        }
+        return new AppointmentChangedEvent(null, state);
+    }
+
+    public static AppointmentChangedEvent changed(State before, Appointment appointment) {
+        return new AppointmentChangedEvent(before, State.of(appointment));
+    }
+
+    public static AppointmentChangedEvent deleted(Appointment appointment) {
+        return new AppointmentChangedEvent(State.of(appointment), null);
+    }
+}
@@ -0,0 +1,47 @@
+package com.friseursalon.backend.service;
+
+import com.friseursalon.backend.model.Service;
+import com.friseursalon.backend.repository.AppointmentRepository;
+import com.friseursalon.backend.repository.ServiceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Befüllt beim Start die Spalte end_time für Bestandstermine, die vor Einführung der
+ * gespeicherten Endzeit angelegt wurden. Pro Dienstleistung ein UPDATE direkt in der
+ * Datenbank, es werden keine Termine in den Speicher geladen. Läuft idempotent bei jedem
+ * Start und ist ein No-Op, sobald alle Zeilen befüllt sind.
+ */
+@Component
+public class AppointmentEndTimeMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentEndTimeMigration.class);
+
+    private final AppointmentRepository appointmentRepository;
+    private final ServiceRepository serviceRepository;
+
+    @Autowired
+    public AppointmentEndTimeMigration(AppointmentRepository appointmentRepository, ServiceRepository serviceRepository) {
+        this.appointmentRepository = appointmentRepository;
+        this.serviceRepository = serviceRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    @Transactional
+    public void fillMissingEndTimes() {
+        int updatedRows = 0;
+        for (Service service : serviceRepository.findAll()) {
+            updatedRows += appointmentRepository.fillMissingEndTimeForService(service.getId(), service.getDurationMinutes());
+        }
+        if (updatedRows > 0) {
+            logger.info("Endzeit für {} Bestandstermine nachgetragen.", updatedRows);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 // Datei: friseursalon-backend/src/main/java/com/friseursalon/backend/service/AppointmentService.java
 package com.friseursalon.backend.service;
 
+import com.friseursalon.backend.cache.AvailabilityCache;
+import com.friseursalon.backend.dto.BookedIntervalDTO;
 import com.friseursalon.backend.dto.DailyAppointmentsDTO;
 import com.friseursalon.backend.model.Appointment;
 import com.friseursalon.backend.model.AppointmentStatus;
@@ -13,6 +15,8 @@ import com.friseursalon.backend.exception.AppointmentConflictException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
@@ -23,9 +27,14 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -34,20 +43,47 @@ public class AppointmentService {
 
     private static final Logger logger = LoggerFactory.getLogger(AppointmentService.class);
 
+    private static final int MAX_AVAILABILITY_RANGE_DAYS = 62;
+    private static final int MAX_NEXT_SLOT_SEARCH_DAYS = 180;
+    private static final int MAX_NEXT_SLOTS = 50;
+    // Wie oft ein Löschen einem parallel verschobenen Termin auf einen neuen Tag folgt
+    private static final int MAX_DELETE_ATTEMPTS = 3;
+
     private final AppointmentRepository appointmentRepository;
     private final ServiceRepository serviceRepository;
     private final WorkingHoursService workingHoursService;
     private final BlockedTimeSlotService blockedTimeSlotService;
+    private final AvailabilityCache availabilityCache;
+    private final BookingCoordinator bookingCoordinator;
+    private final DailyStatsRollup dailyStatsRollup;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int defaultSlotIntervalMinutes;
+    private final boolean packGaps;
 
     @Autowired
     public AppointmentService(AppointmentRepository appointmentRepository,
                               ServiceRepository serviceRepository,
                               WorkingHoursService workingHoursService,
-                              BlockedTimeSlotService blockedTimeSlotService) {
+                              BlockedTimeSlotService blockedTimeSlotService,
+                              AvailabilityCache availabilityCache,
+                              BookingCoordinator bookingCoordinator,
+                              DailyStatsRollup dailyStatsRollup,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${booking.slot.interval-minutes:30}") int defaultSlotIntervalMinutes,
+                              @Value("${booking.slot.gap-packing:false}") boolean packGaps) {
         this.appointmentRepository = appointmentRepository;
         this.serviceRepository = serviceRepository;
         this.workingHoursService = workingHoursService;
         this.blockedTimeSlotService = blockedTimeSlotService;
+        this.availabilityCache = availabilityCache;
+        this.bookingCoordinator = bookingCoordinator;
+        this.dailyStatsRollup = dailyStatsRollup;
+        this.eventPublisher = eventPublisher;
+        if (defaultSlotIntervalMinutes <= 0) {
+            throw new IllegalArgumentException("booking.slot.interval-minutes muss positiv sein.");
+        }
+        this.defaultSlotIntervalMinutes = defaultSlotIntervalMinutes;
+        this.packGaps = packGaps;
     }
 
     public List<Appointment> getAllAppointments() {
@@ -100,9 +136,10 @@ public class AppointmentService {
     }
 
 
-    private boolean hasConflict(Appointment appointmentToCheck, Service serviceDetails) {
+    // Wirft AppointmentConflictException, wenn der Zeitraum belegt oder blockiert ist; nur unter der Tagessperre aufrufen
+    private void ensureNoConflict(Appointment appointmentToCheck, Service serviceDetails) {
         if (appointmentToCheck.getStartTime() == null || serviceDetails == null) {
-            logger.error("hasConflict: Startzeit oder Service-Details sind null. StartTime: {}, ServiceDetails: {}", appointmentToCheck.getStartTime(), serviceDetails);
+            logger.error("ensureNoConflict: Startzeit oder Service-Details sind null. StartTime: {}, ServiceDetails: {}", appointmentToCheck.getStartTime(), serviceDetails);
             throw new IllegalArgumentException("Startzeit und Service-Details dürfen für die Konfliktprüfung nicht null sein.");
         }
 
@@ -118,15 +155,13 @@ public class AppointmentService {
         );
         if (!conflictingAppointments.isEmpty()) {
             logger.warn("Terminkonflikt gefunden für vorgeschlagenen Termin {}-{}. Kollidierende Termine: {}", proposedStartTime, proposedEndTime, conflictingAppointments.stream().map(Appointment::getId).collect(Collectors.toList()));
-            return true;
+            throw new AppointmentConflictException("Der gewählte Zeitpunkt ist bereits durch einen anderen Termin belegt.");
         }
 
         List<BlockedTimeSlot> blocksOnDate = blockedTimeSlotService.getBlocksForDate(proposedStartTime.toLocalDate());
         if (isSlotBlocked(proposedStartTime, proposedEndTime, blocksOnDate)) {
             throw new AppointmentConflictException("Der gewählte Zeitpunkt ist durch eine Pause oder Abwesenheit blockiert.");
         }
-
-        return false;
     }
 
 
@@ -144,10 +179,16 @@ public class AppointmentService {
             throw new AppointmentConflictException("Der gewählte Zeitpunkt liegt außerhalb der Öffnungszeiten.");
         }
 
-        if (hasConflict(appointment, serviceDetails)) {
-            // Exception wird bereits in hasConflict geworfen
-        }
-        return appointmentRepository.save(appointment);
+        // Konfliktprüfung und Speichern unter der Sperre des Tages, sonst können zwei parallele Buchungen beide durchkommen
+        LocalDate appointmentDate = appointment.getStartTime().toLocalDate();
+        return bookingCoordinator.executeForDays(List.of(appointmentDate), () -> {
+            ensureNoConflict(appointment, serviceDetails);
+            Appointment savedAppointment = appointmentRepository.save(appointment);
+            dailyStatsRollup.refreshDays(List.of(appointmentDate));
+            invalidateAvailability(savedAppointment.getStartTime(), calculateEndTime(savedAppointment.getStartTime(), serviceDetails.getDurationMinutes()));
+            eventPublisher.publishEvent(AppointmentChangedEvent.created(savedAppointment));
+            return savedAppointment;
+        });
     }
 
     public Appointment updateAppointment(Long id, Appointment appointmentDetails) {
@@ -171,26 +212,58 @@ public class AppointmentService {
             throw new AppointmentConflictException("Der gewählte Zeitpunkt für die Aktualisierung liegt außerhalb der Öffnungszeiten.");
         }
 
-        if (hasConflict(appointmentDetails, serviceDetails)) {
-            // Exception wird in hasConflict geworfen
-        }
-
-        appointmentToUpdate.setStartTime(appointmentDetails.getStartTime());
-        appointmentToUpdate.setService(serviceDetails);
-        appointmentToUpdate.setCustomer(appointmentDetails.getCustomer());
-        appointmentToUpdate.setNotes(appointmentDetails.getNotes());
-
-        return appointmentRepository.save(appointmentToUpdate);
+        // Alter und neuer Tag werden gesperrt, damit eine Verschiebung mit Buchungen an beiden Tagen serialisiert ist
+        LocalDate previousDate = appointmentToUpdate.getStartTime().toLocalDate();
+        LocalDate newDate = appointmentDetails.getStartTime().toLocalDate();
+        return bookingCoordinator.executeForDays(List.of(previousDate, newDate), () -> {
+            ensureNoConflict(appointmentDetails, serviceDetails);
+
+            // Innerhalb der Sperre neu laden, der Termin könnte zwischenzeitlich geändert oder gelöscht worden sein
+            Appointment lockedAppointment = appointmentRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Termin nicht gefunden für diese ID :: " + id));
+            LocalDate lockedPreviousDate = lockedAppointment.getStartTime().toLocalDate();
+            if (!lockedPreviousDate.equals(previousDate)) {
+                throw new AppointmentConflictException("Der Termin wurde zwischenzeitlich verschoben. Bitte erneut versuchen.");
+            }
+            AppointmentChangedEvent.State before = AppointmentChangedEvent.State.of(lockedAppointment);
+            LocalDateTime previousStart = lockedAppointment.getStartTime();
+            LocalDateTime previousEnd = lockedAppointment.getEndTime();
+            lockedAppointment.setStartTime(appointmentDetails.getStartTime());
+            lockedAppointment.setService(serviceDetails);
+            lockedAppointment.setCustomer(appointmentDetails.getCustomer());
+            lockedAppointment.setNotes(appointmentDetails.getNotes());
+
+            Appointment savedAppointment = appointmentRepository.save(lockedAppointment);
+            dailyStatsRollup.refreshDays(List.of(previousDate, newDate));
+            invalidateAvailability(previousStart, previousEnd);
+            invalidateAvailability(savedAppointment.getStartTime(), calculateEndTime(savedAppointment.getStartTime(), serviceDetails.getDurationMinutes()));
+            eventPublisher.publishEvent(AppointmentChangedEvent.changed(before, savedAppointment));
+            return savedAppointment;
+        });
     }
 
-    @Transactional
     public Appointment updateAppointmentStatus(Long appointmentId, AppointmentStatus newStatus) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+        Appointment existingAppointment = appointmentRepository.findById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Termin nicht gefunden für ID: " + appointmentId));
 
-        logger.info("Aktualisiere Status für Termin ID {} von {} zu {}", appointmentId, appointment.getStatus(), newStatus);
-        appointment.setStatus(newStatus);
-        return appointmentRepository.save(appointment);
+        // Ein stornierter Termin gibt seinen Slot frei; wird er reaktiviert, muss der Slot unter der Tagessperre erneut geprüft werden
+        LocalDate appointmentDate = existingAppointment.getStartTime().toLocalDate();
+        return bookingCoordinator.executeForDays(List.of(appointmentDate), () -> {
+            Appointment appointment = appointmentRepository.findById(appointmentId)
+                    .orElseThrow(() -> new RuntimeException("Termin nicht gefunden für ID: " + appointmentId));
+
+            logger.info("Aktualisiere Status für Termin ID {} von {} zu {}", appointmentId, appointment.getStatus(), newStatus);
+            if (appointment.getStatus() == AppointmentStatus.CANCELLED && newStatus != AppointmentStatus.CANCELLED) {
+                ensureNoConflict(appointment, appointment.getService());
+            }
+            AppointmentChangedEvent.State before = AppointmentChangedEvent.State.of(appointment);
+            appointment.setStatus(newStatus);
+            Appointment savedAppointment = appointmentRepository.save(appointment);
+            dailyStatsRollup.refreshDays(List.of(appointmentDate));
+            invalidateAvailability(savedAppointment.getStartTime(), savedAppointment.getEndTime());
+            eventPublisher.publishEvent(AppointmentChangedEvent.changed(before, savedAppointment));
+            return savedAppointment;
+        });
     }
 
     public boolean deleteUserAppointment(Long appointmentId, String userEmail, boolean isAdmin) {
@@ -203,13 +276,13 @@ public class AppointmentService {
         Appointment appointment = appointmentOpt.get();
 
         if (isAdmin) {
-            appointmentRepository.delete(appointment);
+            deleteAppointment(appointment);
             logger.info("Admin hat Termin {} gelöscht.", appointmentId);
             return true;
         }
 
         if (appointment.getCustomer() != null && appointment.getCustomer().getEmail().equals(userEmail)) {
-            appointmentRepository.delete(appointment);
+            deleteAppointment(appointment);
             logger.info("User {} hat eigenen Termin {} gelöscht.", userEmail, appointmentId);
             return true;
         }
@@ -217,9 +290,134 @@ public class AppointmentService {
         return false;
     }
 
+    // Unter der Tagessperre, damit die Tagesstatistik in derselben Transaktion nachgezogen wird
+    private void deleteAppointment(Appointment appointment) {
+        Long appointmentId = appointment.getId();
+        LocalDate lockedDate = appointment.getStartTime().toLocalDate();
+        // Der übergebene Termin wurde ohne Sperre geladen; ist er inzwischen auf einen anderen Tag verschoben,
+        // wird der neue Tag gesperrt und erneut geladen
+        for (int attempt = 1; attempt <= MAX_DELETE_ATTEMPTS; attempt++) {
+            LocalDate expectedDate = lockedDate;
+            Optional<LocalDate> movedTo = bookingCoordinator.executeForDays(List.of(expectedDate), () -> {
+                Optional<Appointment> current = appointmentRepository.findById(appointmentId);
+                if (current.isEmpty()) {
+                    logger.info("Termin {} wurde bereits gelöscht.", appointmentId);
+                    return Optional.empty();
+                }
+                Appointment lockedAppointment = current.get();
+                LocalDate currentDate = lockedAppointment.getStartTime().toLocalDate();
+                if (!currentDate.equals(expectedDate)) {
+                    return Optional.of(currentDate);
+                }
+                appointmentRepository.delete(lockedAppointment);
+                dailyStatsRollup.refreshDays(List.of(currentDate));
+                invalidateAvailability(lockedAppointment.getStartTime(), lockedAppointment.getEndTime());
+                eventPublisher.publishEvent(AppointmentChangedEvent.deleted(lockedAppointment));
+                return Optional.empty();
+            });
+            if (movedTo.isEmpty()) {
+                return;
+            }
+            logger.debug("Termin {} wurde während des Löschens von {} auf {} verschoben, sperre erneut.", appointmentId, expectedDate, movedTo.get());
+            lockedDate = movedTo.get();
+        }
+        throw new AppointmentConflictException("Der Termin wird gerade mehrfach verschoben. Bitte erneut versuchen.");
+    }
+
+    // Ein Termin über Mitternacht belegt auch Minuten des Folgetages, dessen Slots sind dann ebenfalls veraltet
+    private void invalidateAvailability(LocalDateTime start, LocalDateTime end) {
+        LocalDate lastDate = end != null && end.isAfter(start) ? end.minusNanos(1).toLocalDate() : start.toLocalDate();
+        for (LocalDate date = start.toLocalDate(); !date.isAfter(lastDate); date = date.plusDays(1)) {
+            availabilityCache.invalidateDate(date);
+        }
+    }
+
 
     public List<String> getAvailableSlotsForServiceOnDate(Long serviceId, LocalDate date) {
         logger.debug("getAvailableSlotsForServiceOnDate aufgerufen für Service ID: {} und Datum: {}", serviceId, date);
+        return getAvailableSlotsForServiceInRange(serviceId, date, date).get(date);
+    }
+
+    // Slots für mehrere Tage: Service, Arbeitszeiten, Termine und Blockaden werden je nur einmal für den ganzen Zeitraum geladen
+    public Map<LocalDate, List<String>> getAvailableSlotsForServiceInRange(Long serviceId, LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("Das Enddatum darf nicht vor dem Startdatum liegen.");
+        }
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (days > MAX_AVAILABILITY_RANGE_DAYS) {
+            throw new IllegalArgumentException("Der Zeitraum darf höchstens " + MAX_AVAILABILITY_RANGE_DAYS + " Tage umfassen.");
+        }
+
+        Service service = getBookableService(serviceId);
+        Map<DayOfWeek, WorkingHours> workingHoursByDay = workingHoursService.getWorkingHoursByDay();
+        Map<LocalDate, List<LocalTime>> freeStartsByDate = loadFreeStarts(service, workingHoursByDay, startDate, endDate);
+
+        Map<LocalDate, List<String>> slotsByDate = new LinkedHashMap<>();
+        LocalDateTime earliestStart = LocalDateTime.now().plusMinutes(15);
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            List<String> availableSlots = new ArrayList<>();
+            for (LocalTime freeStart : freeStartsByDate.getOrDefault(date, Collections.emptyList())) {
+                if (date.atTime(freeStart).isBefore(earliestStart)) {
+                    continue;
+                }
+                availableSlots.add(String.format("%02d:%02d", freeStart.getHour(), freeStart.getMinute()));
+            }
+            slotsByDate.put(date, availableSlots);
+        }
+        logger.info("Verfügbare Slots für Service {} von {} bis {} berechnet ({} Tage)", serviceId, startDate, endDate, days);
+        return slotsByDate;
+    }
+
+    /**
+     * Die nächsten {@code count} freien Startzeiten für eine Dienstleistung ab {@code from}, über Tage hinweg.
+     * Geschlossene Tage werden anhand der Öffnungszeiten übersprungen, ohne die Datenbank zu fragen.
+     * Geladen wird in wachsenden Blöcken (7, 14, 28 ... Tage), die Suche endet sobald genug Treffer
+     * vorliegen, spätestens nach {@value #MAX_NEXT_SLOT_SEARCH_DAYS} Tagen.
+     */
+    public List<LocalDateTime> findNextAvailableSlots(Long serviceId, LocalDateTime from, int count) {
+        if (count <= 0 || count > MAX_NEXT_SLOTS) {
+            throw new IllegalArgumentException("Es können zwischen 1 und " + MAX_NEXT_SLOTS + " Termine gesucht werden.");
+        }
+        Service service = getBookableService(serviceId);
+        Map<DayOfWeek, WorkingHours> workingHoursByDay = workingHoursService.getWorkingHoursByDay();
+        List<LocalDateTime> nextSlots = new ArrayList<>(count);
+        if (workingHoursByDay.values().stream().noneMatch(this::isOpen)) {
+            return nextSlots;
+        }
+
+        LocalDateTime earliestStart = LocalDateTime.now().plusMinutes(15);
+        if (from != null && from.isAfter(earliestStart)) {
+            earliestStart = from;
+        }
+        LocalDate searchEnd = earliestStart.toLocalDate().plusDays(MAX_NEXT_SLOT_SEARCH_DAYS - 1L);
+        LocalDate chunkStart = earliestStart.toLocalDate();
+        int chunkDays = 7;
+        while (!chunkStart.isAfter(searchEnd)) {
+            LocalDate chunkEnd = chunkStart.plusDays(chunkDays - 1L);
+            if (chunkEnd.isAfter(searchEnd)) {
+                chunkEnd = searchEnd;
+            }
+            Map<LocalDate, List<LocalTime>> freeStartsByDate = loadFreeStarts(service, workingHoursByDay, chunkStart, chunkEnd);
+            for (LocalDate date = chunkStart; !date.isAfter(chunkEnd); date = date.plusDays(1)) {
+                for (LocalTime freeStart : freeStartsByDate.getOrDefault(date, Collections.emptyList())) {
+                    LocalDateTime slot = date.atTime(freeStart);
+                    if (slot.isBefore(earliestStart)) {
+                        continue;
+                    }
+                    nextSlots.add(slot);
+                    if (nextSlots.size() == count) {
+                        return nextSlots;
+                    }
+                }
+            }
+            chunkStart = chunkEnd.plusDays(1);
+            chunkDays = Math.min(chunkDays * 2, MAX_AVAILABILITY_RANGE_DAYS);
+        }
+        logger.info("Nur {} von {} freien Terminen für Service {} innerhalb von {} Tagen gefunden", nextSlots.size(), count, serviceId, MAX_NEXT_SLOT_SEARCH_DAYS);
+        return nextSlots;
+    }
+
+    private Service getBookableService(Long serviceId) {
         Service service = serviceRepository.findById(serviceId)
                 .orElseThrow(() -> {
                     logger.warn("Dienstleistung nicht gefunden für ID {} bei getAvailableSlots", serviceId);
@@ -231,66 +429,102 @@ public class AppointmentService {
             logger.warn("Ungültige Dauer ({}) für Service ID {} bei getAvailableSlots", duration, serviceId);
             throw new IllegalArgumentException("Die Dauer der Dienstleistung muss positiv sein.");
         }
+        return service;
+    }
 
-        DayOfWeek dayOfWeek = date.getDayOfWeek();
-        Optional<WorkingHours> workingHoursOpt = workingHoursService.getWorkingHoursForDay(dayOfWeek);
-
-        if (workingHoursOpt.isEmpty() || workingHoursOpt.get().isClosed()) {
-            logger.info("Salon ist am {} geschlossen oder keine Arbeitszeiten definiert.", date);
-            return new ArrayList<>();
-        }
-        WorkingHours workingHours = workingHoursOpt.get();
-        LocalTime openingTime = workingHours.getStartTime();
-        LocalTime closingTime = workingHours.getEndTime();
-
-        final int slotInterval = 30;
-
-        List<String> availableSlots = new ArrayList<>();
-        LocalDateTime dayStart = date.atStartOfDay();
-        LocalDateTime dayEnd = date.atTime(LocalTime.MAX);
-
-        List<Appointment> appointmentsOnDate = appointmentRepository.findByStartTimeBetween(dayStart, dayEnd);
-        logger.debug("Anzahl gebuchter Termine an {}: {}", date, appointmentsOnDate.size());
-
-        List<BlockedTimeSlot> blocksOnDate = blockedTimeSlotService.getBlocksForDate(date);
-        logger.debug("Anzahl Blockaden an {}: {}", date, blocksOnDate.size());
-
-
-        LocalTime currentTimeSlot = openingTime;
-        while (currentTimeSlot != null && (currentTimeSlot.plusMinutes(duration).isBefore(closingTime) || currentTimeSlot.plusMinutes(duration).equals(closingTime))) {
-            LocalDateTime proposedStartTime = date.atTime(currentTimeSlot);
-            LocalDateTime proposedEndTime = proposedStartTime.plusMinutes(duration);
+    // Eigenes Raster der Dienstleistung, sonst das Salon-Raster aus booking.slot.interval-minutes
+    private int slotIntervalFor(Service service) {
+        Integer serviceInterval = service.getSlotIntervalMinutes();
+        return serviceInterval != null && serviceInterval > 0 ? serviceInterval : defaultSlotIntervalMinutes;
+    }
 
-            if (proposedStartTime.isBefore(LocalDateTime.now().plusMinutes(15))) {
-                currentTimeSlot = currentTimeSlot.plusMinutes(slotInterval);
+    // Freie Startzeiten je offenem Tag (ohne Zeit-Cutoff), aus dem Cache oder für die fehlenden Tage mit je einer Abfrage berechnet
+    private Map<LocalDate, List<LocalTime>> loadFreeStarts(Service service, Map<DayOfWeek, WorkingHours> workingHoursByDay,
+                                                           LocalDate startDate, LocalDate endDate) {
+        int duration = service.getDurationMinutes();
+        int slotInterval = slotIntervalFor(service);
+        Map<LocalDate, List<LocalTime>> freeStartsByDate = new HashMap<>();
+        LocalDate firstUncachedDate = null;
+        LocalDate lastUncachedDate = null;
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (!isOpen(workingHoursByDay.get(date.getDayOfWeek()))) {
                 continue;
             }
-
-            boolean conflictWithAppointment = false;
-            for (Appointment existingAppointment : appointmentsOnDate) {
-                LocalDateTime existingStartTime = existingAppointment.getStartTime();
-                Service existingService = existingAppointment.getService();
-                if(existingService == null || existingService.getId() == null) {
-                    existingService = serviceRepository.findById(existingAppointment.getService().getId())
-                            .orElseThrow(() -> new RuntimeException("Service für bestehenden Termin nicht gefunden."));
+            List<LocalTime> cached = availabilityCache.get(date, duration, slotInterval, packGaps);
+            if (cached != null) {
+                freeStartsByDate.put(date, cached);
+            } else {
+                if (firstUncachedDate == null) {
+                    firstUncachedDate = date;
                 }
-                LocalDateTime existingEndTime = calculateEndTime(existingStartTime, existingService.getDurationMinutes());
+                lastUncachedDate = date;
+            }
+        }
 
-                if (proposedStartTime.isBefore(existingEndTime) && proposedEndTime.isAfter(existingStartTime)) {
-                    conflictWithAppointment = true;
-                    break;
+        // Nur für die nicht gecachten Tage laden: Termine und Blockaden je eine Abfrage für den ganzen Teilbereich
+        if (firstUncachedDate != null) {
+            long loadGeneration = availabilityCache.currentGeneration();
+            // Auch Termine, die vor dem Teilbereich beginnen und in ihn hineinragen (über Mitternacht)
+            List<BookedIntervalDTO> bookedIntervals = appointmentRepository.findActiveIntervalsOverlapping(firstUncachedDate.atStartOfDay(), lastUncachedDate.plusDays(1).atStartOfDay());
+            Map<LocalDate, List<BookedIntervalDTO>> bookedByDate = groupByOverlappedDate(bookedIntervals, firstUncachedDate, lastUncachedDate);
+            Map<LocalDate, List<BlockedTimeSlot>> blocksByDate = blockedTimeSlotService.getBlocksBetween(firstUncachedDate, lastUncachedDate);
+            logger.debug("Slot-Berechnung {} bis {}: {} Termine, Service-Dauer {} Min", firstUncachedDate, lastUncachedDate, bookedIntervals.size(), duration);
+
+            for (LocalDate date = firstUncachedDate; !date.isAfter(lastUncachedDate); date = date.plusDays(1)) {
+                WorkingHours workingHours = workingHoursByDay.get(date.getDayOfWeek());
+                if (!isOpen(workingHours) || freeStartsByDate.containsKey(date)) {
+                    continue;
                 }
+                DayOccupancy occupancy = buildDayOccupancy(date, workingHours,
+                        bookedByDate.getOrDefault(date, Collections.emptyList()),
+                        blocksByDate.getOrDefault(date, Collections.emptyList()));
+                List<LocalTime> freeStarts = occupancy.findFreeStarts(DayOccupancy.minuteOfDay(workingHours.getStartTime()), slotInterval, duration, packGaps);
+                availabilityCache.putIfUnchanged(date, duration, slotInterval, packGaps, freeStarts, loadGeneration);
+                freeStartsByDate.put(date, freeStarts);
             }
+        }
+        return freeStartsByDate;
+    }
 
-            boolean conflictWithBlock = isSlotBlocked(proposedStartTime, proposedEndTime, blocksOnDate);
-
-            if (!conflictWithAppointment && !conflictWithBlock) {
-                availableSlots.add(String.format("%02d:%02d", currentTimeSlot.getHour(), currentTimeSlot.getMinute()));
+    // Jedes Intervall landet bei jedem Tag in [firstDate, lastDate], den es überlappt, nicht nur beim Tag seines Beginns
+    static Map<LocalDate, List<BookedIntervalDTO>> groupByOverlappedDate(List<BookedIntervalDTO> intervals, LocalDate firstDate, LocalDate lastDate) {
+        Map<LocalDate, List<BookedIntervalDTO>> byDate = new HashMap<>();
+        for (BookedIntervalDTO interval : intervals) {
+            if (interval.getStartTime() == null) {
+                continue;
+            }
+            LocalDateTime end = interval.getEndTime();
+            LocalDate from = interval.getStartTime().toLocalDate();
+            LocalDate to = end != null && end.isAfter(interval.getStartTime()) ? end.minusNanos(1).toLocalDate() : from;
+            if (from.isBefore(firstDate)) {
+                from = firstDate;
             }
-            currentTimeSlot = currentTimeSlot.plusMinutes(slotInterval);
+            if (to.isAfter(lastDate)) {
+                to = lastDate;
+            }
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                byDate.computeIfAbsent(date, d -> new ArrayList<>()).add(interval);
+            }
+        }
+        return byDate;
+    }
+
+    private boolean isOpen(WorkingHours workingHours) {
+        return workingHours != null && !workingHours.isClosed()
+                && workingHours.getStartTime() != null && workingHours.getEndTime() != null;
+    }
+
+    // Belegung des Tages einmalig als Bitmap aufbauen, statt jeden Slot gegen jeden Termin zu prüfen
+    private DayOccupancy buildDayOccupancy(LocalDate date, WorkingHours workingHours,
+                                           List<BookedIntervalDTO> bookedIntervals, List<BlockedTimeSlot> blocks) {
+        DayOccupancy occupancy = DayOccupancy.forOpeningHours(workingHours.getStartTime(), workingHours.getEndTime());
+        for (BookedIntervalDTO interval : bookedIntervals) {
+            occupancy.occupy(date, interval.getStartTime(), interval.getEndTime());
+        }
+        for (BlockedTimeSlot block : blocks) {
+            occupancy.occupy(block.getStartTime(), block.getEndTime());
         }
-        logger.info("Verfügbare Slots für Service {} an {} (Öffnungszeit {} - {}), unter Berücksichtigung von Blockaden: {}", serviceId, date, openingTime, closingTime, availableSlots);
-        return availableSlots;
+        return occupancy;
     }
 
     public List<DailyAppointmentsDTO> getRecentAppointments(int count) {
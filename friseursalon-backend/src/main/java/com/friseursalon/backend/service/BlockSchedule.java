@@ -0,0 +1,89 @@
+package com.friseursalon.backend.service;
+
+import com.friseursalon.backend.model.BlockedTimeSlot;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Unveränderlicher Stand aller Blockaden: wiederkehrende nach Wochentag, einmalige nach Datum.
+ * Die Abfrage für einen Tag oder einen Zeitraum kommt ohne Datenbankzugriff aus. Gehalten und
+ * herausgegeben werden nur losgelöste Kopien der Entitäten.
+ */
+public final class BlockSchedule {
+
+    private static final BlockSchedule EMPTY = new BlockSchedule(new EnumMap<>(DayOfWeek.class), new TreeMap<>(), 0);
+
+    private final Map<DayOfWeek, List<BlockedTimeSlot>> recurringByDay;
+    private final NavigableMap<LocalDate, List<BlockedTimeSlot>> oneOffByDate;
+    private final int size;
+
+    private BlockSchedule(Map<DayOfWeek, List<BlockedTimeSlot>> recurringByDay,
+                          NavigableMap<LocalDate, List<BlockedTimeSlot>> oneOffByDate, int size) {
+        this.recurringByDay = recurringByDay;
+        this.oneOffByDate = oneOffByDate;
+        this.size = size;
+    }
+
+    public static BlockSchedule empty() {
+        return EMPTY;
+    }
+
+    public static BlockSchedule of(Collection<BlockedTimeSlot> blocks) {
+        Map<DayOfWeek, List<BlockedTimeSlot>> recurring = new EnumMap<>(DayOfWeek.class);
+        NavigableMap<LocalDate, List<BlockedTimeSlot>> oneOff = new TreeMap<>();
+        int size = 0;
+        for (BlockedTimeSlot block : blocks) {
+            if (block.isRepeating() && block.getRecurringDayOfWeek() != null) {
+                recurring.computeIfAbsent(block.getRecurringDayOfWeek(), day -> new ArrayList<>()).add(copyOf(block));
+                size++;
+            } else if (!block.isRepeating() && block.getSpecificDate() != null) {
+                oneOff.computeIfAbsent(block.getSpecificDate(), date -> new ArrayList<>()).add(copyOf(block));
+                size++;
+            }
+        }
+        recurring.replaceAll((day, list) -> List.copyOf(list));
+        oneOff.replaceAll((date, list) -> List.copyOf(list));
+        return new BlockSchedule(recurring, Collections.unmodifiableNavigableMap(oneOff), size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Liefert Kopien, damit Änderungen der Aufrufer den gemeinsamen Stand nicht verfälschen
+    public List<BlockedTimeSlot> blocksOn(LocalDate date) {
+        List<BlockedTimeSlot> recurring = recurringByDay.getOrDefault(date.getDayOfWeek(), List.of());
+        List<BlockedTimeSlot> oneOff = oneOffByDate.getOrDefault(date, List.of());
+        List<BlockedTimeSlot> blocks = new ArrayList<>(recurring.size() + oneOff.size());
+        for (BlockedTimeSlot block : oneOff) {
+            blocks.add(copyOf(block));
+        }
+        for (BlockedTimeSlot block : recurring) {
+            blocks.add(copyOf(block));
+        }
+        return blocks;
+    }
+
+    // Blockaden je Tag für [startDate, endDate] (inklusive), jeder Tag ist als Schlüssel enthalten
+    public Map<LocalDate, List<BlockedTimeSlot>> blocksBetween(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, List<BlockedTimeSlot>> blocksByDate = new TreeMap<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            blocksByDate.put(date, blocksOn(date));
+        }
+        return blocksByDate;
+    }
+
+    private static BlockedTimeSlot copyOf(BlockedTimeSlot block) {
+        return new BlockedTimeSlot(block.getId(), block.getDescription(), block.getSpecificDate(),
+                block.getRecurringDayOfWeek(), block.getStartTime(), block.getEndTime(), block.isRepeating());
+    }
+}
@@ -1,17 +1,19 @@
 package com.friseursalon.backend.service;
 
+import com.friseursalon.backend.cache.AvailabilityCache;
+import com.friseursalon.backend.cache.StatisticsCache;
 import com.friseursalon.backend.model.BlockedTimeSlot;
 import com.friseursalon.backend.repository.BlockedTimeSlotRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -19,10 +21,17 @@ public class BlockedTimeSlotService {
 
     private static final Logger logger = LoggerFactory.getLogger(BlockedTimeSlotService.class);
     private final BlockedTimeSlotRepository blockedTimeSlotRepository;
+    private final AvailabilityCache availabilityCache;
+    private final StatisticsCache statisticsCache;
+    // Unveränderlicher Stand aller Blockaden; wird nach jedem Commit einer Änderung komplett ersetzt
+    private volatile BlockSchedule blockSchedule;
 
     @Autowired
-    public BlockedTimeSlotService(BlockedTimeSlotRepository blockedTimeSlotRepository) {
+    public BlockedTimeSlotService(BlockedTimeSlotRepository blockedTimeSlotRepository, AvailabilityCache availabilityCache,
+                                  StatisticsCache statisticsCache) {
         this.blockedTimeSlotRepository = blockedTimeSlotRepository;
+        this.availabilityCache = availabilityCache;
+        this.statisticsCache = statisticsCache;
     }
 
     @Transactional
@@ -50,7 +59,10 @@ public class BlockedTimeSlotService {
             }
         }
         logger.info("Erstelle geblockten Zeitslot: {}", slot);
-        return blockedTimeSlotRepository.save(slot);
+        BlockedTimeSlot savedSlot = blockedTimeSlotRepository.save(slot);
+        reloadScheduleAfterCommit();
+        invalidateAvailability(savedSlot);
+        return savedSlot;
     }
 
     public List<BlockedTimeSlot> getAllBlockedTimeSlots() {
@@ -78,6 +90,9 @@ public class BlockedTimeSlotService {
             throw new IllegalArgumentException("Die Endzeit muss nach der Startzeit liegen.");
         }
 
+        reloadScheduleAfterCommit();
+        // Alte Lage der Blockade merken, bevor sie überschrieben wird
+        invalidateAvailability(existingSlot);
         existingSlot.setDescription(slotDetails.getDescription());
         existingSlot.setStartTime(slotDetails.getStartTime());
         existingSlot.setEndTime(slotDetails.getEndTime());
@@ -100,25 +115,73 @@ public class BlockedTimeSlotService {
         }
 
         logger.info("Aktualisiere geblockten Zeitslot mit ID {}: {}", id, existingSlot);
-        return blockedTimeSlotRepository.save(existingSlot);
+        BlockedTimeSlot savedSlot = blockedTimeSlotRepository.save(existingSlot);
+        invalidateAvailability(savedSlot);
+        return savedSlot;
     }
 
     @Transactional
     public void deleteBlockedTimeSlot(Long id) {
-        if (!blockedTimeSlotRepository.existsById(id)) {
-            logger.warn("BlockedTimeSlot mit ID {} nicht gefunden zum Löschen.", id);
-            throw new RuntimeException("Geblockter Zeitslot nicht gefunden für ID: " + id);
-        }
+        BlockedTimeSlot existingSlot = blockedTimeSlotRepository.findById(id)
+                .orElseThrow(() -> {
+                    logger.warn("BlockedTimeSlot mit ID {} nicht gefunden zum Löschen.", id);
+                    return new RuntimeException("Geblockter Zeitslot nicht gefunden für ID: " + id);
+                });
         logger.info("Lösche geblockten Zeitslot mit ID: {}", id);
-        blockedTimeSlotRepository.deleteById(id);
+        blockedTimeSlotRepository.delete(existingSlot);
+        reloadScheduleAfterCommit();
+        invalidateAvailability(existingSlot);
+    }
+
+    // Wiederkehrende Blockaden betreffen jeden Tag dieses Wochentags, einmalige nur ihr Datum
+    private void invalidateAvailability(BlockedTimeSlot slot) {
+        if (slot.isRepeating()) {
+            availabilityCache.invalidateDayOfWeek(slot.getRecurringDayOfWeek());
+        } else {
+            availabilityCache.invalidateDate(slot.getSpecificDate());
+        }
+    }
+
+    // Vor allen Invalidierungen aufrufen: Nach-Commit-Callbacks laufen in Registrierungsreihenfolge, und ein
+    // Leser, der nach einer Invalidierung neu rechnet, muss bereits den neuen Blockaden-Stand sehen
+    private void reloadScheduleAfterCommit() {
+        AfterCommit.run(this::reloadSchedule);
+        // Blockaden verringern die verfügbaren Minuten der Auslastungsstatistik
+        statisticsCache.invalidateAll();
+    }
+
+    // Auch periodisch, damit Änderungen anderer Instanzen ankommen
+    @Scheduled(cron = "${blocked-slots.schedule.refresh-cron:0 */15 * * * *}")
+    public void reloadSchedule() {
+        synchronized (this) {
+            BlockSchedule reloaded = BlockSchedule.of(blockedTimeSlotRepository.findAll());
+            blockSchedule = reloaded;
+            logger.debug("Blockaden-Stand neu geladen: {} Blockaden", reloaded.size());
+        }
+    }
+
+    private BlockSchedule getBlockSchedule() {
+        BlockSchedule current = blockSchedule;
+        if (current == null) {
+            synchronized (this) {
+                if (blockSchedule == null) {
+                    reloadSchedule();
+                }
+                current = blockSchedule;
+            }
+        }
+        return current;
     }
 
+    // Ohne Datenbankzugriff aus dem In-Memory-Stand (losgelöste Kopien)
     public List<BlockedTimeSlot> getBlocksForDate(LocalDate date) {
-        DayOfWeek dayOfWeek = date.getDayOfWeek();
-        logger.debug("Suche Blockaden für Datum {} (Wochentag: {})", date, dayOfWeek);
-        // Query muss eventuell angepasst werden, wenn Spaltennamen sich ändern (sollte aber nicht, da nur Feldname geändert)
-        List<BlockedTimeSlot> blocks = blockedTimeSlotRepository.findBlocksForDate(date, dayOfWeek);
-        logger.debug("{} Blockaden gefunden für {}", blocks.size(), date);
+        List<BlockedTimeSlot> blocks = getBlockSchedule().blocksOn(date);
+        logger.debug("{} Blockaden für {} (Wochentag: {})", blocks.size(), date, date.getDayOfWeek());
         return blocks;
     }
-}
\ No newline at end of file
+
+    // Blockaden für einen ganzen Datumsbereich, nach Datum gruppiert – ebenfalls ohne Datenbankzugriff
+    public Map<LocalDate, List<BlockedTimeSlot>> getBlocksBetween(LocalDate startDate, LocalDate endDate) {
+        return getBlockSchedule().blocksBetween(startDate, endDate);
+    }
+}
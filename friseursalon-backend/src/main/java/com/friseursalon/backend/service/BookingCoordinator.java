@@ -0,0 +1,112 @@
+package com.friseursalon.backend.service;
+
+import com.friseursalon.backend.repository.BookingDayLockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serialisiert "Konflikt prüfen + Termin speichern" pro Kalendertag.
+ * <p>
+ * Innerhalb der Instanz über gestreifte Locks (Tag → Stripe), Buchungen an verschiedenen Tagen
+ * laufen also parallel. Zusätzlich wird in derselben Transaktion die Zeile des Tages in
+ * {@code booking_day_lock} per SELECT ... FOR UPDATE gesperrt, damit auch mehrere Instanzen
+ * nicht gleichzeitig für denselben Tag buchen. Die Transaktion wird committet, bevor die
+ * Locks wieder freigegeben werden.
+ */
+@Component
+public class BookingCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingCoordinator.class);
+
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final BookingDayLockRepository bookingDayLockRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public BookingCoordinator(BookingDayLockRepository bookingDayLockRepository, PlatformTransactionManager transactionManager) {
+        this.bookingDayLockRepository = bookingDayLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Führt {@code action} in einer eigenen Transaktion aus, während alle angegebenen Tage gesperrt sind.
+     * Darf nicht innerhalb einer bereits laufenden Transaktion aufgerufen werden, sonst würde erst
+     * nach Freigabe der Locks committet.
+     */
+    public <T> T executeForDays(Collection<LocalDate> days, Supplier<T> action) {
+        // Feste Reihenfolge (Tage und Stripes aufsteigend) verhindert Deadlocks bei Umbuchungen über zwei Tage
+        List<LocalDate> sortedDays = List.copyOf(new TreeSet<>(days));
+        return withStripes(sortedDays, () -> transactionTemplate.execute(status -> {
+            for (LocalDate day : sortedDays) {
+                lockDayRow(day);
+            }
+            return action.get();
+        }));
+    }
+
+    /**
+     * Wie {@link #executeForDays}, legt aber keine fehlenden Zeilen in {@code booking_day_lock} an, sondern sperrt
+     * nur die vorhandenen Zeilen von [firstDay, lastDay]. Für Abgleichläufe über den ganzen Bestand, die sonst für
+     * jeden historischen Tag eine Sperrzeile hinterlassen würden. Tage ohne Zeile sind nur innerhalb der Instanz
+     * gegen parallele Buchungen geschützt.
+     */
+    public <T> T executeForExistingDays(LocalDate firstDay, LocalDate lastDay, Supplier<T> action) {
+        List<LocalDate> sortedDays = firstDay.datesUntil(lastDay.plusDays(1)).toList();
+        return withStripes(sortedDays, () -> transactionTemplate.execute(status -> {
+            bookingDayLockRepository.findExistingForUpdate(firstDay, lastDay);
+            return action.get();
+        }));
+    }
+
+    private <T> T withStripes(List<LocalDate> sortedDays, Supplier<T> action) {
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        for (LocalDate day : sortedDays) {
+            stripeIndexes.add(stripeIndex(day));
+        }
+
+        List<ReentrantLock> acquired = stripeIndexes.stream().map(index -> stripes[index]).toList();
+        for (ReentrantLock lock : acquired) {
+            lock.lock();
+        }
+        try {
+            return action.get();
+        } finally {
+            for (int i = acquired.size() - 1; i >= 0; i--) {
+                acquired.get(i).unlock();
+            }
+        }
+    }
+
+    private int stripeIndex(LocalDate day) {
+        return Math.floorMod(Long.hashCode(day.toEpochDay()), STRIPES);
+    }
+
+    private void lockDayRow(LocalDate day) {
+        if (bookingDayLockRepository.findForUpdate(day).isPresent()) {
+            return;
+        }
+        // Zeile existiert noch nicht: in derselben Transaktion (und Verbindung) anlegen. Legt eine andere Instanz
+        // sie gerade an, wartet ON CONFLICT DO NOTHING auf deren Commit und übergeht die Zeile dann
+        if (bookingDayLockRepository.insertIfAbsent(day) == 0) {
+            logger.debug("Sperrzeile für {} wurde parallel angelegt.", day);
+        }
+        bookingDayLockRepository.findForUpdate(day)
+                .orElseThrow(() -> new IllegalStateException("Sperrzeile für " + day + " konnte nicht angelegt werden."));
+    }
+}
@@ -0,0 +1,146 @@
+package com.friseursalon.backend.service;
+
+import com.friseursalon.backend.cache.StatisticsCache;
+import com.friseursalon.backend.model.Service;
+import com.friseursalon.backend.repository.AppointmentRepository;
+import com.friseursalon.backend.repository.DailyAppointmentStatRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Pflegt die Tabelle {@code daily_appointment_stats}, aus der die Statistik-Endpunkte lesen.
+ * <p>
+ * Jede Terminänderung berechnet die Zeilen der betroffenen Tage in derselben Transaktion neu
+ * (Löschen + serverseitig gruppiertes Einfügen, wenige Zeilen pro Tag). Da Buchungen pro Tag über den {@link BookingCoordinator}
+ * serialisiert sind, kann kein paralleler Schreiber denselben Tag überholen. Beim Start wird eine leere
+ * Tabelle aus dem Bestand befüllt, nachts wird der gesamte Zeitraum monatsweise abgeglichen.
+ */
+@Component
+public class DailyStatsRollup {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyStatsRollup.class);
+
+    private final DailyAppointmentStatRepository statRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final BookingCoordinator bookingCoordinator;
+    private final StatisticsCache statisticsCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public DailyStatsRollup(DailyAppointmentStatRepository statRepository,
+                            AppointmentRepository appointmentRepository,
+                            BookingCoordinator bookingCoordinator,
+                            StatisticsCache statisticsCache,
+                            PlatformTransactionManager transactionManager) {
+        this.statRepository = statRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.bookingCoordinator = bookingCoordinator;
+        this.statisticsCache = statisticsCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Nach der Endzeit-Migration, vor den Live-Zählern
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(5)
+    public void backfillIfEmpty() {
+        if (statRepository.count() == 0 && appointmentRepository.count() > 0) {
+            logger.info("Tagesstatistik ist leer, befülle sie aus dem Terminbestand.");
+            rebuildAll();
+        }
+    }
+
+    @Scheduled(cron = "${statistics.rollup.rebuild-cron:0 30 3 * * *}")
+    public synchronized void rebuildAll() {
+        LocalDateTime earliest = appointmentRepository.findEarliestStartTime();
+        LocalDateTime latest = appointmentRepository.findLatestStartTime();
+        if (earliest == null || latest == null) {
+            transactionTemplate.executeWithoutResult(status -> statRepository.deleteAllInBatch());
+            statisticsCache.invalidateAll();
+            return;
+        }
+        LocalDate firstDate = earliest.toLocalDate();
+        LocalDate lastDate = latest.toLocalDate();
+        transactionTemplate.executeWithoutResult(status -> statRepository.deleteOutside(firstDate, lastDate));
+
+        int rebuiltDays = 0;
+        for (LocalDate chunkStart = firstDate; !chunkStart.isAfter(lastDate); chunkStart = chunkStart.plusMonths(1).withDayOfMonth(1)) {
+            LocalDate chunkEnd = chunkStart.withDayOfMonth(chunkStart.lengthOfMonth());
+            if (chunkEnd.isAfter(lastDate)) {
+                chunkEnd = lastDate;
+            }
+            List<LocalDate> days = chunkStart.datesUntil(chunkEnd.plusDays(1)).toList();
+            // Unter den Tagessperren, damit parallele Buchungen nicht zwischen Löschen und Einfügen schreiben;
+            // fehlende Sperrzeilen historischer Tage werden dabei nicht angelegt
+            bookingCoordinator.executeForExistingDays(chunkStart, chunkEnd, () -> {
+                recompute(days);
+                return null;
+            });
+            rebuiltDays += days.size();
+        }
+        // Der Abgleich kann abweichende Zeilen korrigiert haben, auch in abgeschlossenen Zeiträumen
+        statisticsCache.invalidateAll();
+        logger.info("Tagesstatistik neu berechnet: {} Tage ({} bis {})", rebuiltDays, firstDate, lastDate);
+    }
+
+    /**
+     * Berechnet die Zeilen der angegebenen Tage aus den Terminen neu. Muss in der Transaktion laufen,
+     * in der die Termine geändert wurden, damit Statistik und Termine gemeinsam committet werden.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refreshDays(Collection<LocalDate> days) {
+        recompute(days);
+    }
+
+    // Preis und Dauer einer Dienstleistung haben sich geändert; Anzahl pro Zeile bleibt gleich
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void repriceService(Service service) {
+        int updatedRows = statRepository.repriceService(service.getId(), service.getDurationMinutes(), service.getPrice());
+        logger.debug("Tagesstatistik für Dienstleistung {} angepasst: {} Zeilen", service.getId(), updatedRows);
+    }
+
+    private void recompute(Collection<LocalDate> days) {
+        TreeSet<LocalDate> sortedDays = new TreeSet<>(days);
+        if (sortedDays.isEmpty()) {
+            return;
+        }
+        statRepository.deleteByStatDateIn(sortedDays);
+
+        // Zusammenhängende Tage mit einer Abfrage gruppieren, bei einer Verschiebung über Wochen aber nicht alles dazwischen
+        for (List<LocalDate> run : contiguousRuns(sortedDays)) {
+            LocalDateTime start = run.get(0).atStartOfDay();
+            LocalDateTime end = run.get(run.size() - 1).plusDays(1).atStartOfDay();
+            statRepository.insertFromAppointmentsBetween(start, end);
+        }
+    }
+
+    private static List<List<LocalDate>> contiguousRuns(TreeSet<LocalDate> sortedDays) {
+        List<List<LocalDate>> runs = new ArrayList<>();
+        List<LocalDate> current = new ArrayList<>();
+        for (LocalDate day : sortedDays) {
+            if (!current.isEmpty() && !current.get(current.size() - 1).plusDays(1).equals(day)) {
+                runs.add(current);
+                current = new ArrayList<>();
+            }
+            current.add(day);
+        }
+        runs.add(current);
+        return runs;
+    }
+}
@@ -0,0 +1,144 @@
+package com.friseursalon.backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Belegungs-Bitmap eines einzelnen Tages in Minutenauflösung (1440 Bits, intern ein long[]).
+ * Ein gesetztes Bit bedeutet "Minute ist belegt" – außerhalb der Öffnungszeiten, durch eine
+ * Blockade oder durch einen bestehenden Termin. Die Bitmap wird einmal pro Tag aufgebaut,
+ * danach liefert {@link #findFreeStarts(int, int, int)} alle freien Startzeiten in einem Durchlauf.
+ */
+public final class DayOccupancy {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final BitSet occupied = new BitSet(MINUTES_PER_DAY);
+
+    private DayOccupancy() {
+    }
+
+    // Tag ohne Öffnungszeiten: alles belegt
+    public static DayOccupancy closed() {
+        DayOccupancy occupancy = new DayOccupancy();
+        occupancy.occupied.set(0, MINUTES_PER_DAY);
+        return occupancy;
+    }
+
+    // Alles vor der Öffnung und ab Ladenschluss gilt als belegt
+    public static DayOccupancy forOpeningHours(LocalTime openingTime, LocalTime closingTime) {
+        if (openingTime == null || closingTime == null || !closingTime.isAfter(openingTime)) {
+            return closed();
+        }
+        DayOccupancy occupancy = new DayOccupancy();
+        occupancy.occupy(0, minuteOfDay(openingTime));
+        occupancy.occupy(minuteOfDayRoundedUp(closingTime), MINUTES_PER_DAY);
+        return occupancy;
+    }
+
+    public static int minuteOfDay(LocalTime time) {
+        return time.toSecondOfDay() / 60;
+    }
+
+    // Endzeiten werden aufgerundet, damit eine angebrochene Minute als belegt zählt
+    public static int minuteOfDayRoundedUp(LocalTime time) {
+        int minute = minuteOfDay(time);
+        return (time.getSecond() > 0 || time.getNano() > 0) ? minute + 1 : minute;
+    }
+
+    public static LocalTime timeOfMinute(int minuteOfDay) {
+        return LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    public void occupy(int fromMinute, int toMinute) {
+        int from = Math.max(0, fromMinute);
+        int to = Math.min(MINUTES_PER_DAY, toMinute);
+        if (to > from) {
+            occupied.set(from, to);
+        }
+    }
+
+    public void occupy(LocalTime start, LocalTime end) {
+        if (start == null || end == null) {
+            return;
+        }
+        occupy(minuteOfDay(start), minuteOfDayRoundedUp(end));
+    }
+
+    // Belegt den Teil von [start, end), der auf den angegebenen Tag fällt
+    public void occupy(LocalDate day, LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            return;
+        }
+        LocalDateTime dayStart = day.atStartOfDay();
+        LocalDateTime nextDayStart = dayStart.plusDays(1);
+        if (!end.isAfter(dayStart) || !start.isBefore(nextDayStart)) {
+            return;
+        }
+        int fromMinute = start.isBefore(dayStart) ? 0 : minuteOfDay(start.toLocalTime());
+        int toMinute = end.isBefore(nextDayStart) ? minuteOfDayRoundedUp(end.toLocalTime()) : MINUTES_PER_DAY;
+        occupy(fromMinute, toMinute);
+    }
+
+    /**
+     * Liefert alle Startzeiten auf dem Raster {@code gridOriginMinute + k * slotInterval}, an denen
+     * {@code durationMinutes} freie Minuten am Stück verfügbar sind. Es wird nur von freiem Block zu
+     * freiem Block gesprungen, der Aufwand hängt also nicht von der Anzahl der Termine ab.
+     */
+    public List<LocalTime> findFreeStarts(int gridOriginMinute, int slotInterval, int durationMinutes) {
+        return findFreeStarts(gridOriginMinute, slotInterval, durationMinutes, false);
+    }
+
+    /**
+     * Wie {@link #findFreeStarts(int, int, int)}; mit {@code packGaps} wird pro freiem Block zusätzlich
+     * direkt am Ende des vorherigen Termins (Blockbeginn) und bündig vor dem nächsten Termin
+     * (Blockende minus Dauer) angeboten, damit keine unverkäuflichen Reste neben dem Raster entstehen.
+     * Die Startzeiten bleiben aufsteigend sortiert, es bleibt ein einziger Durchlauf über den Tag.
+     */
+    public List<LocalTime> findFreeStarts(int gridOriginMinute, int slotInterval, int durationMinutes, boolean packGaps) {
+        if (slotInterval <= 0 || durationMinutes <= 0) {
+            throw new IllegalArgumentException("Slot-Intervall und Dauer müssen positiv sein.");
+        }
+        List<LocalTime> freeStarts = new ArrayList<>();
+        int freeFrom = occupied.nextClearBit(0);
+        while (freeFrom < MINUTES_PER_DAY) {
+            int freeTo = occupied.nextSetBit(freeFrom);
+            if (freeTo < 0) {
+                freeTo = MINUTES_PER_DAY;
+            }
+            int firstGridPoint = firstGridPointAtOrAfter(freeFrom, gridOriginMinute, slotInterval);
+            int lastEmitted = -1;
+            if (packGaps && firstGridPoint != freeFrom && freeFrom + durationMinutes <= freeTo) {
+                freeStarts.add(timeOfMinute(freeFrom));
+                lastEmitted = freeFrom;
+            }
+            for (int candidate = firstGridPoint;
+                 candidate + durationMinutes <= freeTo;
+                 candidate += slotInterval) {
+                freeStarts.add(timeOfMinute(candidate));
+                lastEmitted = candidate;
+            }
+            int flushStart = freeTo - durationMinutes;
+            if (packGaps && freeTo < MINUTES_PER_DAY && flushStart > lastEmitted && flushStart >= freeFrom) {
+                freeStarts.add(timeOfMinute(flushStart));
+            }
+            if (freeTo >= MINUTES_PER_DAY) {
+                break;
+            }
+            freeFrom = occupied.nextClearBit(freeTo);
+        }
+        return freeStarts;
+    }
+
+    private static int firstGridPointAtOrAfter(int minute, int gridOriginMinute, int slotInterval) {
+        if (minute <= gridOriginMinute) {
+            return gridOriginMinute;
+        }
+        int steps = (minute - gridOriginMinute + slotInterval - 1) / slotInterval;
+        return gridOriginMinute + steps * slotInterval;
+    }
+}
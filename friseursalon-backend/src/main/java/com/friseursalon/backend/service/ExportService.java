@@ -0,0 +1,195 @@
+package com.friseursalon.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.friseursalon.backend.dto.AppointmentExportRowDTO;
+import com.friseursalon.backend.dto.CustomerExportRowDTO;
+import com.friseursalon.backend.dto.DailyStatExportRowDTO;
+import com.friseursalon.backend.repository.AppointmentRepository;
+import com.friseursalon.backend.repository.CustomerRepository;
+import com.friseursalon.backend.repository.DailyAppointmentStatRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Schreibt Termine, Kunden und die Tagesstatistik eines Zeitraums als CSV oder NDJSON.
+ * <p>
+ * Die Zeilen kommen als flache Projektionen über einen Datenbank-Cursor ({@link Stream}) und werden
+ * einzeln in den Ausgabestrom geschrieben. Es werden keine Entitäten geladen, der Persistenzkontext
+ * wächst also nicht mit; der Speicherbedarf hängt nicht von der Anzahl exportierter Zeilen ab.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String fileExtension;
+
+        Format(String contentType, String fileExtension) {
+            this.contentType = contentType;
+            this.fileExtension = fileExtension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getFileExtension() {
+            return fileExtension;
+        }
+
+        public static Format fromParameter(String value) {
+            return Arrays.stream(values())
+                    .filter(format -> format.name().equalsIgnoreCase(value))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unbekanntes Exportformat: " + value + " (erlaubt: csv, ndjson)"));
+        }
+    }
+
+    private static final List<String> APPOINTMENT_COLUMNS = List.of("id", "startTime", "endTime", "status", "createdAt",
+            "serviceId", "serviceName", "price", "durationMinutes",
+            "customerId", "customerFirstName", "customerLastName", "customerEmail", "notes");
+    private static final List<String> CUSTOMER_COLUMNS = List.of("id", "firstName", "lastName", "email", "phoneNumber", "registrationDate");
+    private static final List<String> DAILY_STAT_COLUMNS = List.of("statDate", "serviceId", "serviceName", "hourOfDay", "status",
+            "appointmentCount", "bookedMinutes", "revenue");
+
+    private final AppointmentRepository appointmentRepository;
+    private final CustomerRepository customerRepository;
+    private final DailyAppointmentStatRepository dailyAppointmentStatRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public ExportService(AppointmentRepository appointmentRepository,
+                         CustomerRepository customerRepository,
+                         DailyAppointmentStatRepository dailyAppointmentStatRepository,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager) {
+        this.appointmentRepository = appointmentRepository;
+        this.customerRepository = customerRepository;
+        this.dailyAppointmentStatRepository = dailyAppointmentStatRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Termine mit Beginn in [startDate, endDate] (inklusive), auch stornierte
+    public void writeAppointments(LocalDate startDate, LocalDate endDate, Format format, OutputStream out) throws IOException {
+        write("Termine", () -> appointmentRepository.streamExportRowsBetween(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay()),
+                format, APPOINTMENT_COLUMNS, (AppointmentExportRowDTO row) -> Arrays.asList(
+                        row.getId(), row.getStartTime(), row.getEndTime(), row.getStatus(), row.getCreatedAt(),
+                        row.getServiceId(), row.getServiceName(), row.getPrice(), row.getDurationMinutes(),
+                        row.getCustomerId(), row.getCustomerFirstName(), row.getCustomerLastName(), row.getCustomerEmail(), row.getNotes()),
+                out);
+    }
+
+    // Kunden mit Registrierung in [startDate, endDate] (inklusive)
+    public void writeCustomers(LocalDate startDate, LocalDate endDate, Format format, OutputStream out) throws IOException {
+        write("Kunden", () -> customerRepository.streamExportRowsRegisteredBetween(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay()),
+                format, CUSTOMER_COLUMNS, (CustomerExportRowDTO row) -> Arrays.asList(
+                        row.getId(), row.getFirstName(), row.getLastName(), row.getEmail(), row.getPhoneNumber(), row.getRegistrationDate()),
+                out);
+    }
+
+    public void writeDailyStats(LocalDate startDate, LocalDate endDate, Format format, OutputStream out) throws IOException {
+        write("Tagesstatistik", () -> dailyAppointmentStatRepository.streamExportRowsBetween(startDate, endDate),
+                format, DAILY_STAT_COLUMNS, (DailyStatExportRowDTO row) -> Arrays.asList(
+                        row.getStatDate(), row.getServiceId(), row.getServiceName(), row.getHourOfDay(), row.getStatus(),
+                        row.getAppointmentCount(), row.getBookedMinutes(), row.getRevenue()),
+                out);
+    }
+
+    private <T> void write(String label, Supplier<Stream<T>> query, Format format, List<String> columns,
+                           Function<T, List<Object>> csvValues, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writeCsvLine(writer, columns);
+        }
+        long rows;
+        try {
+            // Der Cursor lebt nur innerhalb der Transaktion; sie dauert so lange wie der Download
+            rows = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<T> stream = query.get()) {
+                    Iterator<T> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        T row = iterator.next();
+                        if (format == Format.CSV) {
+                            writeCsvLine(writer, csvValues.apply(row));
+                        } else {
+                            writer.write(objectMapper.writeValueAsString(row));
+                            writer.write('\n');
+                        }
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+        } catch (UncheckedIOException e) {
+            // Meist ein abgebrochener Download; der Cursor ist hier bereits geschlossen
+            logger.warn("Export {} abgebrochen: {}", label, e.getCause().getMessage());
+            throw e.getCause();
+        }
+        writer.flush();
+        logger.info("Export {} ({}) abgeschlossen: {} Zeilen", label, format, rows);
+    }
+
+    private static void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(toCsvField(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180; Texte, die eine Tabellenkalkulation als Formel lesen würde, bekommen ein führendes Apostroph
+    private static String toCsvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Double number) {
+            return BigDecimal.valueOf(number).toPlainString();
+        }
+        String text = value.toString();
+        if (value instanceof String && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    public static String fileName(String dataset, LocalDate startDate, LocalDate endDate, Format format) {
+        return String.format(Locale.ROOT, "%s_%s_%s.%s", dataset, startDate, endDate, format.getFileExtension());
+    }
+}
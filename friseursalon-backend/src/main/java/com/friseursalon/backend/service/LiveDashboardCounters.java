@@ -0,0 +1,243 @@
+package com.friseursalon.backend.service;
+
+import com.friseursalon.backend.dto.DashboardTilesDTO;
+import com.friseursalon.backend.repository.AppointmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.WeekFields;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live-Zähler für die Dashboard-Kacheln (heute, diese Woche, dieser Monat, anstehend, neue Buchungen).
+ * <p>
+ * Ein Abgleich lädt den Stand per Aggregationsabfrage, danach werden die Zähler nach jedem Commit aus
+ * {@link AppointmentChangedEvent}s fortgeschrieben. Lesen und Schreiben sind sperrfrei ({@link LongAdder}),
+ * die Kacheln kosten also keine Datenbankabfrage. Beim Tageswechsel (und damit auch beim Wochen- und
+ * Monatswechsel) wird neu abgeglichen, ebenso periodisch, damit Termine, die ohne Änderung in die
+ * Vergangenheit rutschen ("anstehend"), korrigiert werden.
+ * <p>
+ * Ereignisse, die während der Aggregationsabfrage eines Abgleichs eintreffen, werden zurückgehalten und
+ * danach genau einmal auf den neuen Stand angewendet; ihr Commit liegt praktisch immer nach dem Beginn der
+ * Abfrage, sie fehlen also im geladenen Stand und gingen sonst mit dem alten Stand verloren. Offen bleibt
+ * nur ein Commit unmittelbar vor der Abfrage, dessen Listener erst danach läuft; den korrigiert der
+ * nächste periodische Abgleich.
+ */
+@Component
+public class LiveDashboardCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveDashboardCounters.class);
+
+    private static final WeekFields WEEK_FIELDS = WeekFields.of(Locale.GERMANY);
+
+    private final AppointmentRepository appointmentRepository;
+
+    private volatile Window window;
+
+    // Während eines Abgleichs zurückgehaltene Ereignisse, sonst null; geschützt durch pendingLock
+    private final Object pendingLock = new Object();
+    private List<AppointmentChangedEvent> pendingEvents;
+
+    @Autowired
+    public LiveDashboardCounters(AppointmentRepository appointmentRepository) {
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(20)
+    public void initialize() {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${statistics.live-counters.reconcile-cron:0 */5 * * * *}")
+    public synchronized void reconcile() {
+        LocalDate today = LocalDate.now();
+        Window fresh = new Window(today);
+        synchronized (pendingLock) {
+            pendingEvents = new ArrayList<>();
+        }
+        boolean loaded = false;
+        try {
+            DashboardTilesDTO tiles = appointmentRepository.aggregateDashboardTiles(
+                    min(fresh.weekStart, fresh.monthStart).atStartOfDay(), max(fresh.weekEnd, fresh.monthEnd).atTime(LocalTime.MAX),
+                    today.atStartOfDay(), today.atTime(LocalTime.MAX), today.minusDays(1).atStartOfDay(),
+                    fresh.weekStart.atStartOfDay(), fresh.weekEnd.atTime(LocalTime.MAX),
+                    fresh.monthStart.atStartOfDay(), fresh.monthEnd.atTime(LocalTime.MAX),
+                    LocalDateTime.now());
+            fresh.load(tiles);
+            loaded = true;
+        } finally {
+            // Nachspielen und Umschalten unter derselben Sperre: jedes Ereignis landet genau einmal im neuen
+            // Stand; schlägt die Abfrage fehl, gehen die zurückgehaltenen Ereignisse an den bisherigen
+            synchronized (pendingLock) {
+                Window target = loaded ? fresh : window;
+                for (AppointmentChangedEvent event : pendingEvents) {
+                    apply(target, event);
+                }
+                logger.debug("{} während des Abgleichs eingetroffene Terminänderungen nachgespielt", pendingEvents.size());
+                pendingEvents = null;
+                if (loaded) {
+                    window = fresh;
+                }
+            }
+        }
+        logger.debug("Dashboard-Zähler abgeglichen für {}", today);
+    }
+
+    public void reconcileAfterCommit() {
+        AfterCommit.run(() -> {
+            if (window != null) {
+                reconcile();
+            }
+        });
+    }
+
+    // Aktueller Stand; nach einem Tageswechsel wird vorher einmal abgeglichen
+    public DashboardTilesDTO getTiles() {
+        Window current = window;
+        if (current == null || !current.day.equals(LocalDate.now())) {
+            reconcile();
+            current = window;
+        }
+        return current.toTiles();
+    }
+
+    // fallbackExecution: auch ohne umgebende Transaktion (z.B. in Tests) sofort anwenden
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        Window current;
+        synchronized (pendingLock) {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+                return;
+            }
+            current = window;
+        }
+        // Außerhalb der Sperre: ein danach beginnender Abgleich sieht den Commit bereits in seiner Abfrage
+        apply(current, event);
+    }
+
+    private static void apply(Window current, AppointmentChangedEvent event) {
+        if (current == null || !current.day.equals(LocalDate.now())) {
+            // Veralteter Stand, der nächste Lesezugriff gleicht ohnehin neu ab
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (event.before() != null) {
+            current.apply(event.before(), -1, now);
+        }
+        if (event.after() != null) {
+            current.apply(event.after(), 1, now);
+        }
+    }
+
+    private static LocalDate min(LocalDate first, LocalDate second) {
+        return first.isBefore(second) ? first : second;
+    }
+
+    private static LocalDate max(LocalDate first, LocalDate second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+    private static final class Window {
+
+        private final LocalDate day;
+        private final LocalDate weekStart;
+        private final LocalDate weekEnd;
+        private final LocalDate monthStart;
+        private final LocalDate monthEnd;
+
+        private final LongAdder todayCount = new LongAdder();
+        private final LongAdder weekCount = new LongAdder();
+        private final LongAdder monthCount = new LongAdder();
+        private final LongAdder upcomingCount = new LongAdder();
+        private final LongAdder createdTodayCount = new LongAdder();
+        private final LongAdder createdYesterdayCount = new LongAdder();
+        // Umsätze in Cent, damit auch sie sperrfrei addiert werden können
+        private final LongAdder todayRevenueCents = new LongAdder();
+        private final LongAdder weekRevenueCents = new LongAdder();
+        private final LongAdder monthRevenueCents = new LongAdder();
+
+        private Window(LocalDate day) {
+            this.day = day;
+            this.weekStart = day.with(WEEK_FIELDS.dayOfWeek(), 1);
+            this.weekEnd = day.with(WEEK_FIELDS.dayOfWeek(), 7);
+            this.monthStart = day.withDayOfMonth(1);
+            this.monthEnd = day.with(TemporalAdjusters.lastDayOfMonth());
+        }
+
+        private void load(DashboardTilesDTO tiles) {
+            todayCount.add(orZero(tiles.getTodayActiveCount()));
+            weekCount.add(orZero(tiles.getWeekActiveCount()));
+            monthCount.add(orZero(tiles.getMonthActiveCount()));
+            upcomingCount.add(orZero(tiles.getUpcomingActiveCount()));
+            createdTodayCount.add(orZero(tiles.getCreatedTodayCount()));
+            createdYesterdayCount.add(orZero(tiles.getCreatedYesterdayCount()));
+            todayRevenueCents.add(toCents(tiles.getTodayRevenue()));
+            weekRevenueCents.add(toCents(tiles.getWeekRevenue()));
+            monthRevenueCents.add(toCents(tiles.getMonthRevenue()));
+        }
+
+        private void apply(AppointmentChangedEvent.State state, int sign, LocalDateTime now) {
+            if (state.createdAt() != null) {
+                LocalDate createdDate = state.createdAt().toLocalDate();
+                if (createdDate.equals(day)) {
+                    createdTodayCount.add(sign);
+                } else if (createdDate.equals(day.minusDays(1))) {
+                    createdYesterdayCount.add(sign);
+                }
+            }
+            if (!state.isActive() || state.startTime() == null) {
+                return;
+            }
+            LocalDate date = state.startTime().toLocalDate();
+            long cents = sign * toCents(state.price());
+            if (date.equals(day)) {
+                todayCount.add(sign);
+                todayRevenueCents.add(cents);
+            }
+            if (!date.isBefore(weekStart) && !date.isAfter(weekEnd)) {
+                weekCount.add(sign);
+                weekRevenueCents.add(cents);
+            }
+            if (!date.isBefore(monthStart) && !date.isAfter(monthEnd)) {
+                monthCount.add(sign);
+                monthRevenueCents.add(cents);
+            }
+            if (state.startTime().isAfter(now)) {
+                upcomingCount.add(sign);
+            }
+        }
+
+        private DashboardTilesDTO toTiles() {
+            return new DashboardTilesDTO(
+                    todayCount.sum(), todayRevenueCents.sum() / 100.0,
+                    weekCount.sum(), weekRevenueCents.sum() / 100.0,
+                    monthCount.sum(), monthRevenueCents.sum() / 100.0,
+                    upcomingCount.sum(), createdTodayCount.sum(), createdYesterdayCount.sum());
+        }
+
+        private static long orZero(Long value) {
+            return value != null ? value : 0L;
+        }
+
+        private static long toCents(Double value) {
+            return value != null ? Math.round(value * 100) : 0L;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.friseursalon.backend.service;
 
+import com.friseursalon.backend.cache.AvailabilityCache;
+import com.friseursalon.backend.cache.StatisticsCache;
 import com.friseursalon.backend.model.Service;
+import com.friseursalon.backend.repository.AppointmentRepository;
 import com.friseursalon.backend.repository.ServiceRepository;
 import org.springframework.beans.factory.annotation.Autowired; // Für Dependency Injection
+import org.springframework.transaction.annotation.Transactional;
  // Markiert diese Klasse als Spring Service
 
 import java.util.List;
@@ -12,10 +16,23 @@ import java.util.Optional;
 public class ServiceService {
 
     private final ServiceRepository serviceRepository;// Hier wird unser Repository injiziert
+    private final AppointmentRepository appointmentRepository;
+    private final AvailabilityCache availabilityCache;
+    private final DailyStatsRollup dailyStatsRollup;
+    private final LiveDashboardCounters liveDashboardCounters;
+    private final StatisticsCache statisticsCache;
 
     @Autowired // Spring injiziert das ServiceRepository automatisch
-    public ServiceService(ServiceRepository serviceRepository) {
+    public ServiceService(ServiceRepository serviceRepository, AppointmentRepository appointmentRepository,
+                          AvailabilityCache availabilityCache,
+                          DailyStatsRollup dailyStatsRollup, LiveDashboardCounters liveDashboardCounters,
+                          StatisticsCache statisticsCache) {
         this.serviceRepository = serviceRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.availabilityCache = availabilityCache;
+        this.dailyStatsRollup = dailyStatsRollup;
+        this.liveDashboardCounters = liveDashboardCounters;
+        this.statisticsCache = statisticsCache;
     }
 
     // Alle Dienstleistungen abrufen
@@ -30,23 +47,57 @@ public class ServiceService {
 
     // Eine neue Dienstleistung erstellen/speichern
     public Service createService(Service service) {
-        return serviceRepository.save(service);
+        validateSlotInterval(service.getSlotIntervalMinutes());
+        Service savedService = serviceRepository.save(service);
+        // Anzahl aktiver Dienstleistungen in den Statistiken
+        statisticsCache.invalidateAll();
+        return savedService;
     }
 
     // Eine bestehende Dienstleistung aktualisieren
+    @Transactional
     public Service updateService(Long id, Service serviceDetails) {
+        validateSlotInterval(serviceDetails.getSlotIntervalMinutes());
         // Zuerst prüfen, ob die Dienstleistung existiert
         Service service = serviceRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Dienstleistung nicht gefunden für diese ID :: " + id));
 
+        // Eine geänderte Dauer verschiebt die Belegung aller Tage mit Terminen dieser Dienstleistung
+        boolean durationChanged = service.getDurationMinutes() != serviceDetails.getDurationMinutes();
+        // Umsatz und gebuchte Minuten in der Tagesstatistik hängen an Preis und Dauer
+        boolean priceChanged = Double.compare(service.getPrice(), serviceDetails.getPrice()) != 0;
+
         // Details aktualisieren
         service.setName(serviceDetails.getName());
         service.setDescription(serviceDetails.getDescription());
         service.setPrice(serviceDetails.getPrice());
         service.setDurationMinutes(serviceDetails.getDurationMinutes());
+        service.setSlotIntervalMinutes(serviceDetails.getSlotIntervalMinutes());
 
         // Aktualisierte Dienstleistung speichern
-        return serviceRepository.save(service);
+        Service savedService = serviceRepository.save(service);
+        if (durationChanged) {
+            // Gespeicherte Endzeiten der Termine passen sonst nicht mehr zur neuen Dauer
+            appointmentRepository.updateEndTimeForService(savedService.getId(), savedService.getDurationMinutes());
+            availabilityCache.invalidateAll();
+        }
+        if (durationChanged || priceChanged) {
+            dailyStatsRollup.repriceService(savedService);
+        }
+        if (priceChanged) {
+            // Umsatz-Kacheln rechnen mit dem aktuellen Preis
+            liveDashboardCounters.reconcileAfterCommit();
+        }
+        // Namen, Preise und Dauern stecken in fast allen Statistik-Ergebnissen
+        statisticsCache.invalidateAll();
+        return savedService;
+    }
+
+    // null heißt Salon-Raster; 0 oder negative Werte würden bei der Slot-Berechnung sonst stillschweigend ignoriert
+    private void validateSlotInterval(Integer slotIntervalMinutes) {
+        if (slotIntervalMinutes != null && slotIntervalMinutes <= 0) {
+            throw new IllegalArgumentException("Das Slot-Raster der Dienstleistung muss positiv sein.");
+        }
     }
 
     // Eine Dienstleistung löschen
@@ -54,5 +105,6 @@ public class ServiceService {
         Service service = serviceRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Dienstleistung nicht gefunden für diese ID :: " + id));
         serviceRepository.delete(service);
+        statisticsCache.invalidateAll();
     }
 }
\ No newline at end of file
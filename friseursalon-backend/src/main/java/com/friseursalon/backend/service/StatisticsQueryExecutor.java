@@ -0,0 +1,144 @@
+package com.friseursalon.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Führt voneinander unabhängige Statistik-Abfragen parallel auf virtuellen Threads aus.
+ * <p>
+ * Ein globales Semaphor begrenzt die gleichzeitig laufenden Abfragen über alle Anfragen hinweg,
+ * damit parallele Dashboards den Connection-Pool nicht leer ziehen. Auf eine freie Erlaubnis wartet
+ * der aufrufende Thread in {@link Batch#submit} (höchstens eine Frist lang); erst danach wird die Abfrage
+ * gestartet und ihre eigene Frist beginnt, Wartezeit in der Warteschlange zählt also nicht zur Laufzeit.
+ * <p>
+ * Teilergebnisse: Eine Abfrage, die keine Erlaubnis bekommt, ihre Frist überschreitet (und dann abgebrochen
+ * wird) oder fehlschlägt, liefert in {@link Pending#get()} {@code null} und wird unter
+ * {@link Batch#getMissing()} geführt. Die übrigen Abfragen des Batches sind davon nicht betroffen, der
+ * Aufrufer gibt dann ein Teilergebnis zurück.
+ */
+@Component
+public class StatisticsQueryExecutor implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsQueryExecutor.class);
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("statistics-query-", 0).factory());
+    private final Semaphore permits;
+    private final long timeoutNanos;
+
+    @Autowired
+    public StatisticsQueryExecutor(@Value("${statistics.fan-out.max-concurrency:4}") int maxConcurrency,
+                                   @Value("${statistics.fan-out.timeout-ms:3000}") long timeoutMillis) {
+        if (maxConcurrency <= 0 || timeoutMillis <= 0) {
+            throw new IllegalArgumentException("statistics.fan-out.max-concurrency und timeout-ms müssen positiv sein.");
+        }
+        this.permits = new Semaphore(maxConcurrency);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    // Neuer Batch; nur vom aufrufenden Thread zu verwenden
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    public final class Batch {
+
+        private final List<String> missing = new ArrayList<>();
+
+        private Batch() {
+        }
+
+        // Wartet auf eine freie Erlaubnis und startet die Abfrage; ihre Frist läuft ab dem Start
+        public <T> Pending<T> submit(String label, Callable<T> query) {
+            try {
+                if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                    logger.warn("Statistik-Abfrage '{}' hat keine freie Verbindung erhalten und wird ausgelassen.", label);
+                    return new Pending<>(this, label, null, 0);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new Pending<>(this, label, null, 0);
+            }
+            long deadlineNanos = System.nanoTime() + timeoutNanos;
+            try {
+                Future<T> future = executor.submit(() -> {
+                    try {
+                        return query.call();
+                    } finally {
+                        permits.release();
+                    }
+                });
+                return new Pending<>(this, label, future, deadlineNanos);
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        // Bezeichnungen der Abfragen, die kein Ergebnis geliefert haben
+        public List<String> getMissing() {
+            return Collections.unmodifiableList(missing);
+        }
+
+        public boolean isComplete() {
+            return missing.isEmpty();
+        }
+    }
+
+    public static final class Pending<T> {
+
+        private final Batch batch;
+        private final String label;
+        // null, wenn die Abfrage mangels Erlaubnis gar nicht gestartet wurde
+        private final Future<T> future;
+        private final long deadlineNanos;
+
+        private Pending(Batch batch, String label, Future<T> future, long deadlineNanos) {
+            this.batch = batch;
+            this.label = label;
+            this.future = future;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        // Ergebnis oder null, wenn die Abfrage nicht gestartet wurde, ihre Frist überschreitet oder fehlschlägt
+        public T get() {
+            if (future == null) {
+                batch.missing.add(label);
+                return null;
+            }
+            try {
+                return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                logger.warn("Statistik-Abfrage '{}' hat die Frist überschritten und wird ausgelassen.", label);
+            } catch (ExecutionException e) {
+                logger.warn("Statistik-Abfrage '{}' fehlgeschlagen.", label, e.getCause() != null ? e.getCause() : e);
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+            }
+            batch.missing.add(label);
+            return null;
+        }
+    }
+}
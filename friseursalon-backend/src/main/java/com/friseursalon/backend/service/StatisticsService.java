@@ -1,5 +1,6 @@
 package com.friseursalon.backend.service;
 
+import com.friseursalon.backend.cache.StatisticsCache;
 import com.friseursalon.backend.dto.*;
 import com.friseursalon.backend.model.Appointment;
 import com.friseursalon.backend.model.AppointmentStatus;
@@ -7,8 +8,8 @@ import com.friseursalon.backend.model.BlockedTimeSlot;
 import com.friseursalon.backend.model.WorkingHours;
 import com.friseursalon.backend.repository.AppointmentRepository;
 import com.friseursalon.backend.repository.CustomerRepository;
+import com.friseursalon.backend.repository.DailyAppointmentStatRepository;
 import com.friseursalon.backend.repository.ServiceRepository;
-import com.friseursalon.backend.repository.WorkingHoursRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,13 +29,17 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAdjusters;
-import java.time.temporal.WeekFields;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -42,51 +47,69 @@ public class StatisticsService {
 
     private static final Logger logger = LoggerFactory.getLogger(StatisticsService.class);
     private final AppointmentRepository appointmentRepository;
-    private final WorkingHoursRepository workingHoursRepository;
+    private final WorkingHoursService workingHoursService;
     private final BlockedTimeSlotService blockedTimeSlotService;
     private final CustomerRepository customerRepository;
     private final ServiceRepository serviceRepository;
+    private final DailyAppointmentStatRepository dailyAppointmentStatRepository;
+    private final LiveDashboardCounters liveDashboardCounters;
+    private final StatisticsQueryExecutor statisticsQueryExecutor;
+    private final StatisticsCache statisticsCache;
 
     private final DateTimeFormatter GERMAN_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy", Locale.GERMAN);
 
 
     @Autowired
     public StatisticsService(AppointmentRepository appointmentRepository,
-                             WorkingHoursRepository workingHoursRepository,
+                             WorkingHoursService workingHoursService,
                              BlockedTimeSlotService blockedTimeSlotService,
                              CustomerRepository customerRepository,
-                             ServiceRepository serviceRepository) {
+                             ServiceRepository serviceRepository,
+                             DailyAppointmentStatRepository dailyAppointmentStatRepository,
+                             LiveDashboardCounters liveDashboardCounters,
+                             StatisticsQueryExecutor statisticsQueryExecutor,
+                             StatisticsCache statisticsCache) {
         this.appointmentRepository = appointmentRepository;
-        this.workingHoursRepository = workingHoursRepository;
+        this.workingHoursService = workingHoursService;
         this.blockedTimeSlotService = blockedTimeSlotService;
         this.customerRepository = customerRepository;
         this.serviceRepository = serviceRepository;
+        this.dailyAppointmentStatRepository = dailyAppointmentStatRepository;
+        this.liveDashboardCounters = liveDashboardCounters;
+        this.statisticsQueryExecutor = statisticsQueryExecutor;
+        this.statisticsCache = statisticsCache;
     }
 
-    // HIER BEGINNT DIE NEUE METHODE
-    public List<TopServiceDTO> getTopServices(String sortBy, int limit) {
-        logger.info("Rufe Top-{} Services ab, sortiert nach {}", limit, sortBy);
+    // Rangliste aus der Tagesstatistik; startDate/endDate sind optional, ohne sie zählt der gesamte Bestand
+    public List<TopServiceDTO> getTopServices(String sortBy, int limit, LocalDate startDate, LocalDate endDate) {
+        String sortKey = "revenue".equalsIgnoreCase(sortBy) ? "revenue" : "bookings";
+        return statisticsCache.getOrLoad("top-services", startDate, endDate, List.of(sortKey, limit),
+                () -> loadTopServices(sortKey, limit, startDate, endDate));
+    }
+
+    private List<TopServiceDTO> loadTopServices(String sortBy, int limit, LocalDate startDate, LocalDate endDate) {
+        logger.info("Rufe Top-{} Services ab, sortiert nach {} (Zeitraum: {} bis {})", limit, sortBy, startDate, endDate);
         Pageable pageable = PageRequest.of(0, limit);
         List<Map<String, Object>> results;
 
         if ("revenue".equalsIgnoreCase(sortBy)) {
-            results = appointmentRepository.findTopServicesByRevenue(pageable);
+            results = dailyAppointmentStatRepository.findTopServicesByRevenue(startDate, endDate, pageable);
         } else { // Standard ist "bookings"
-            results = appointmentRepository.findTopServicesByBookings(pageable);
+            results = dailyAppointmentStatRepository.findTopServicesByBookings(startDate, endDate, pageable);
         }
 
+        // Alle Dienstleistungen der Rangliste mit einer Abfrage laden statt findById pro Zeile
+        List<Long> serviceIds = results.stream().map(result -> (Long) result.get("serviceId")).toList();
+        Map<Long, com.friseursalon.backend.model.Service> servicesById = serviceRepository.findAllById(serviceIds).stream()
+                .collect(Collectors.toMap(com.friseursalon.backend.model.Service::getId, service -> service));
+
         return results.stream().map(result -> {
             Long serviceId = (Long) result.get("serviceId");
-            // Optional, die vollen Service-Details zu laden
-            com.friseursalon.backend.model.Service service = serviceRepository.findById(serviceId).orElse(new com.friseursalon.backend.model.Service());
+            com.friseursalon.backend.model.Service service = servicesById.getOrDefault(serviceId, new com.friseursalon.backend.model.Service());
 
-            // Die Metriken aus der Datenbank-Antwort extrahieren
-            long totalBookings = (result.get("totalBookings") != null) ? ((Number) result.get("totalBookings")).longValue() : 0L;
+            long totalBookings = toLong(result.get("totalBookings"));
             BigDecimal totalRevenue = (result.get("totalRevenue") != null) ? new BigDecimal(((Number) result.get("totalRevenue")).toString()) : BigDecimal.ZERO;
 
-            // Wenn nach Umsatz sortiert wird, müssen wir die Buchungen separat ermitteln (optional, aber gut für die Anzeige)
-            // Fürs Erste lassen wir es einfach, um die Komplexität gering zu halten.
-
             return new TopServiceDTO(
                     serviceId,
                     service.getName(),
@@ -96,7 +119,6 @@ public class StatisticsService {
             );
         }).collect(Collectors.toList());
     }
-    // HIER ENDET DIE NEUE METHODE
 
 
     public DetailedAppointmentStatsDTO getDetailedAppointmentStats() {
@@ -108,16 +130,32 @@ public class StatisticsService {
 
 
     public DetailedAppointmentStatsDTO getDetailedAppointmentStats(LocalDate startDate, LocalDate endDate) {
+        long daysInPeriod = Math.max(1, ChronoUnit.DAYS.between(startDate, endDate) + 1);
+        // Gecacht wird der Zeitraum-Teil samt Vorperiode; Teilergebnisse werden nicht abgelegt
+        DetailedAppointmentStatsDTO periodStats = statisticsCache.getOrLoad("detailed", startDate.minusDays(daysInPeriod), endDate, List.of(),
+                () -> loadDetailedPeriodStats(startDate, endDate), stats -> !stats.isPartialResult());
+
+        // Die Kacheln (heute/Woche/Monat/anstehend, neue Buchungen) kommen bei jedem Aufruf aus den Live-Zählern
+        DashboardTilesDTO tiles = liveDashboardCounters.getTiles();
+        return periodStats.toBuilder()
+                .todayCount(toLong(tiles.getTodayActiveCount()))
+                .thisWeekCount(toLong(tiles.getWeekActiveCount()))
+                .thisMonthCount(toLong(tiles.getMonthActiveCount()))
+                .totalUpcomingCount(toLong(tiles.getUpcomingActiveCount()))
+                .revenueToday(toMoney(tiles.getTodayRevenue()))
+                .revenueThisWeek(toMoney(tiles.getWeekRevenue()))
+                .revenueThisMonth(toMoney(tiles.getMonthRevenue()))
+                .newBookingsToday(toLong(tiles.getCreatedTodayCount()))
+                .newBookingsYesterday(toLong(tiles.getCreatedYesterdayCount()))
+                .build();
+    }
+
+    private DetailedAppointmentStatsDTO loadDetailedPeriodStats(LocalDate startDate, LocalDate endDate) {
         logger.info("Berechne detaillierte Statistiken für Zeitraum: {} bis {}", startDate, endDate);
 
         LocalDateTime periodStartDateTime = startDate.atStartOfDay();
         LocalDateTime periodEndDateTime = endDate.atTime(LocalTime.MAX);
 
-        long totalAppointmentsInPeriod = appointmentRepository.findAll().stream()
-                .filter(a -> a.getStartTime().isAfter(periodStartDateTime.minusNanos(1)) && a.getStartTime().isBefore(periodEndDateTime.plusNanos(1)) && (a.getStatus() == null || a.getStatus() != AppointmentStatus.CANCELLED))
-                .count();
-        BigDecimal totalRevenueInPeriod = calculateRevenueForPeriod(periodStartDateTime, periodEndDateTime);
-
         long daysInPeriod = ChronoUnit.DAYS.between(startDate, endDate) + 1;
         if (daysInPeriod <= 0) daysInPeriod = 1;
 
@@ -127,61 +165,49 @@ public class StatisticsService {
         LocalDateTime previousPeriodStartDateTime = previousPeriodStartDate.atStartOfDay();
         LocalDateTime previousPeriodEndDateTime = previousPeriodEndDate.atTime(LocalTime.MAX);
 
-        Long previousPeriodTotalAppointments = appointmentRepository.findAll().stream()
-                .filter(a -> a.getStartTime().isAfter(previousPeriodStartDateTime.minusNanos(1)) && a.getStartTime().isBefore(previousPeriodEndDateTime.plusNanos(1)) && (a.getStatus() == null || a.getStatus() != AppointmentStatus.CANCELLED))
-                .count();
-        BigDecimal previousPeriodTotalRevenue = calculateRevenueForPeriod(previousPeriodStartDateTime, previousPeriodEndDateTime);
-        Long previousPeriodUniqueCustomers = appointmentRepository.countDistinctCustomersByStartTimeBetween(previousPeriodStartDateTime, previousPeriodEndDateTime);
+        // Unabhängige Abfragen laufen parallel; was nicht rechtzeitig oder gar nicht geliefert wird, bleibt im Ergebnis null
+        StatisticsQueryExecutor.Batch batch = statisticsQueryExecutor.newBatch();
+        StatisticsQueryExecutor.Pending<AppointmentKpiDTO> kpisQuery = batch.submit("period-kpis", () ->
+                dailyAppointmentStatRepository.aggregatePeriodKpis(startDate, endDate, previousPeriodStartDate, previousPeriodEndDate));
+        StatisticsQueryExecutor.Pending<Long> uniqueCustomersQuery = batch.submit("unique-customers", () ->
+                appointmentRepository.countDistinctCustomersByStartTimeBetween(periodStartDateTime, periodEndDateTime));
+        StatisticsQueryExecutor.Pending<Long> previousUniqueCustomersQuery = batch.submit("previous-unique-customers", () ->
+                appointmentRepository.countDistinctCustomersByStartTimeBetween(previousPeriodStartDateTime, previousPeriodEndDateTime));
+        StatisticsQueryExecutor.Pending<Long> newCustomersQuery = batch.submit("new-customers", () ->
+                countNewCustomersAmongAttendees(periodStartDateTime, periodEndDateTime));
+        StatisticsQueryExecutor.Pending<Long> previousNewCustomersQuery = batch.submit("previous-new-customers", () ->
+                countNewCustomersAmongAttendees(previousPeriodStartDateTime, previousPeriodEndDateTime));
+        StatisticsQueryExecutor.Pending<Double> leadTimeQuery = batch.submit("lead-time", () ->
+                appointmentRepository.findAverageBookingLeadTimeInDays(periodStartDateTime, periodEndDateTime));
+        StatisticsQueryExecutor.Pending<Long> activeServicesQuery = batch.submit("active-services", serviceRepository::count);
+
+        AppointmentKpiDTO kpis = kpisQuery.get();
+        Long uniqueCustomersInPeriod = uniqueCustomersQuery.get();
+        Long previousPeriodUniqueCustomers = previousUniqueCustomersQuery.get();
+        Long newCustomersAmongAttendees = newCustomersQuery.get();
+        Long newCustomersAmongAttendeesPrevious = previousNewCustomersQuery.get();
+        Double avgLeadTimeDays = leadTimeQuery.get();
+        Long totalActiveServices = activeServicesQuery.get();
+        if (!batch.isComplete()) {
+            logger.warn("Detaillierte Statistiken unvollständig, fehlende Abfragen: {}", batch.getMissing());
+        }
 
+        long totalAppointmentsInPeriod = kpis != null ? toLong(kpis.getPeriodActiveCount()) : 0L;
+        BigDecimal totalRevenueInPeriod = kpis != null ? toMoney(kpis.getPeriodRevenue()) : null;
+        Long previousPeriodTotalAppointments = kpis != null ? toLong(kpis.getPreviousActiveCount()) : null;
+        BigDecimal previousPeriodTotalRevenue = kpis != null ? toMoney(kpis.getPreviousRevenue()) : null;
 
-        Double appointmentCountChangePercentage = calculatePercentageChange(
+        Double appointmentCountChangePercentage = kpis != null ? calculatePercentageChange(
                 BigDecimal.valueOf(totalAppointmentsInPeriod),
-                BigDecimal.valueOf(previousPeriodTotalAppointments != null ? previousPeriodTotalAppointments : 0)
-        );
-        Double revenueChangePercentage = calculatePercentageChange(
-                totalRevenueInPeriod,
-                previousPeriodTotalRevenue != null ? previousPeriodTotalRevenue : BigDecimal.ZERO
-        );
+                BigDecimal.valueOf(previousPeriodTotalAppointments)
+        ) : null;
+        Double revenueChangePercentage = calculatePercentageChange(totalRevenueInPeriod, previousPeriodTotalRevenue);
 
-        LocalDateTime now = LocalDateTime.now();
-        LocalDate today = LocalDate.now();
-        LocalDateTime startOfToday = today.atStartOfDay();
-        LocalDateTime endOfToday = today.atTime(LocalTime.MAX);
-        LocalDateTime startOfYesterday = startOfToday.minusDays(1);
-
-        WeekFields weekFields = WeekFields.of(Locale.GERMANY);
-        LocalDateTime startOfWeek = today.with(weekFields.dayOfWeek(), 1).atStartOfDay();
-        LocalDateTime endOfWeek = today.with(weekFields.dayOfWeek(), 7).atTime(LocalTime.MAX);
-
-        LocalDateTime startOfMonthLDT = today.withDayOfMonth(1).atStartOfDay();
-        LocalDateTime endOfMonthLDT = today.with(TemporalAdjusters.lastDayOfMonth()).atTime(LocalTime.MAX);
-
-        long todayCount = appointmentRepository.findAll().stream()
-                .filter(a -> a.getStartTime().isAfter(startOfToday.minusNanos(1)) && a.getStartTime().isBefore(endOfToday.plusNanos(1)) && (a.getStatus() == null || a.getStatus() != AppointmentStatus.CANCELLED))
-                .count();
-        long thisWeekCount = appointmentRepository.findAll().stream()
-                .filter(a -> a.getStartTime().isAfter(startOfWeek.minusNanos(1)) && a.getStartTime().isBefore(endOfWeek.plusNanos(1)) && (a.getStatus() == null || a.getStatus() != AppointmentStatus.CANCELLED))
-                .count();
-        long thisMonthCount = appointmentRepository.findAll().stream()
-                .filter(a -> a.getStartTime().isAfter(startOfMonthLDT.minusNanos(1)) && a.getStartTime().isBefore(endOfMonthLDT.plusNanos(1)) && (a.getStatus() == null || a.getStatus() != AppointmentStatus.CANCELLED))
-                .count();
-        long totalUpcomingCount = appointmentRepository.findByStartTimeAfterOrderByStartTimeAsc(now).stream()
-                .filter(a -> a.getStatus() == null || a.getStatus() != AppointmentStatus.CANCELLED)
-                .count();
-
-
-        BigDecimal revenueToday = calculateRevenueForPeriod(startOfToday, endOfToday);
-        BigDecimal revenueThisWeek = calculateRevenueForPeriod(startOfWeek, endOfWeek);
-        BigDecimal revenueThisMonth = calculateRevenueForPeriod(startOfMonthLDT, endOfMonthLDT);
-
-        Long uniqueCustomersInPeriod = appointmentRepository.countDistinctCustomersByStartTimeBetween(periodStartDateTime, periodEndDateTime);
-
-        Double customerGrowthPercentage = calculatePercentageChange(
-                uniqueCustomersInPeriod != null ? BigDecimal.valueOf(uniqueCustomersInPeriod) : BigDecimal.ZERO,
-                previousPeriodUniqueCustomers != null ? BigDecimal.valueOf(previousPeriodUniqueCustomers) : BigDecimal.ZERO
-        );
+        Double customerGrowthPercentage = (uniqueCustomersInPeriod != null && previousPeriodUniqueCustomers != null)
+                ? calculatePercentageChange(BigDecimal.valueOf(uniqueCustomersInPeriod), BigDecimal.valueOf(previousPeriodUniqueCustomers))
+                : null;
 
-        Long totalDurationMinutes = appointmentRepository.sumDurationMinutesByStartTimeBetween(periodStartDateTime, periodEndDateTime);
+        Long totalDurationMinutes = kpis != null ? kpis.getPeriodDurationMinutes() : null;
         Double averageAppointmentDurationInPeriod = (totalAppointmentsInPeriod > 0 && totalDurationMinutes != null && totalDurationMinutes > 0)
                 ? (double) totalDurationMinutes / totalAppointmentsInPeriod
                 : null;
@@ -190,33 +216,21 @@ public class StatisticsService {
                 ? (double) totalAppointmentsInPeriod / uniqueCustomersInPeriod
                 : null;
 
-        long totalActiveServices = serviceRepository.count();
-
-        Long newBookingsTodayCount = appointmentRepository.countNewAppointmentsCreatedBetween(startOfToday, endOfToday.plusDays(1).minusNanos(1));
-        Long newBookingsYesterdayCount = appointmentRepository.countNewAppointmentsCreatedBetween(startOfYesterday, startOfToday.minusNanos(1));
-
-        Long cancelledInPeriod = appointmentRepository.countAppointmentsByStatusBetween(periodStartDateTime, periodEndDateTime, AppointmentStatus.CANCELLED);
-        Long allAppointmentsCreatedForPeriod = appointmentRepository.countByStartTimeBetween(periodStartDateTime, periodEndDateTime); // Alle Termine, die für den Zeitraum *erstellt* wurden (unabhängig vom aktuellen Status, wenn nicht storniert)
-        Long nonCancelledAppointmentsForPeriod = appointmentRepository.findAll().stream()
-                .filter(a -> a.getStartTime().isAfter(periodStartDateTime.minusNanos(1)) && a.getStartTime().isBefore(periodEndDateTime.plusNanos(1)) && (a.getStatus() == null || a.getStatus() != AppointmentStatus.CANCELLED))
-                .count();
-        Long totalAppointmentsConsideredForCancellationRate = nonCancelledAppointmentsForPeriod + (cancelledInPeriod != null ? cancelledInPeriod : 0L);
-
-
-        Double cancellationRateValue = (totalAppointmentsConsideredForCancellationRate > 0 && cancelledInPeriod != null)
-                ? ((double) cancelledInPeriod / totalAppointmentsConsideredForCancellationRate) * 100
-                : null;
-
-        Long cancelledInPreviousPeriod = appointmentRepository.countAppointmentsByStatusBetween(previousPeriodStartDateTime, previousPeriodEndDateTime, AppointmentStatus.CANCELLED);
-        Long nonCancelledAppointmentsForPreviousPeriod = appointmentRepository.findAll().stream()
-                .filter(a -> a.getStartTime().isAfter(previousPeriodStartDateTime.minusNanos(1)) && a.getStartTime().isBefore(previousPeriodEndDateTime.plusNanos(1)) && (a.getStatus() == null || a.getStatus() != AppointmentStatus.CANCELLED))
-                .count();
-        Long totalAppointmentsConsideredForCancellationRatePrevious = nonCancelledAppointmentsForPreviousPeriod + (cancelledInPreviousPeriod != null ? cancelledInPreviousPeriod : 0L);
-
-        Double previousPeriodCancellationRate = (totalAppointmentsConsideredForCancellationRatePrevious > 0 && cancelledInPreviousPeriod != null)
-                ? ((double) cancelledInPreviousPeriod / totalAppointmentsConsideredForCancellationRatePrevious) * 100
-                : null;
+        Double cancellationRateValue = null;
+        Double previousPeriodCancellationRate = null;
+        if (kpis != null) {
+            long cancelledInPeriod = toLong(kpis.getPeriodCancelledCount());
+            long totalAppointmentsConsideredForCancellationRate = totalAppointmentsInPeriod + cancelledInPeriod;
+            if (totalAppointmentsConsideredForCancellationRate > 0) {
+                cancellationRateValue = ((double) cancelledInPeriod / totalAppointmentsConsideredForCancellationRate) * 100;
+            }
 
+            long cancelledInPreviousPeriod = toLong(kpis.getPreviousCancelledCount());
+            long totalAppointmentsConsideredForCancellationRatePrevious = previousPeriodTotalAppointments + cancelledInPreviousPeriod;
+            if (totalAppointmentsConsideredForCancellationRatePrevious > 0) {
+                previousPeriodCancellationRate = ((double) cancelledInPreviousPeriod / totalAppointmentsConsideredForCancellationRatePrevious) * 100;
+            }
+        }
 
         Double cancellationRateChangePercentage = calculatePercentageChange(
                 cancellationRateValue != null ? BigDecimal.valueOf(cancellationRateValue) : null,
@@ -224,20 +238,10 @@ public class StatisticsService {
                 false
         );
 
-        List<Long> customerIdsInPeriod = appointmentRepository.findDistinctCustomerIdsWithAppointmentsBetween(periodStartDateTime, periodEndDateTime);
-        Long newCustomersAmongAttendees = 0L;
-        if (customerIdsInPeriod != null && !customerIdsInPeriod.isEmpty()) {
-            newCustomersAmongAttendees = customerRepository.countNewCustomersRegisteredBetweenAndInIdList(periodStartDateTime, periodEndDateTime, customerIdsInPeriod);
-        }
         Double newCustomerShareValue = (uniqueCustomersInPeriod != null && uniqueCustomersInPeriod > 0 && newCustomersAmongAttendees != null)
                 ? ((double) newCustomersAmongAttendees / uniqueCustomersInPeriod) * 100
                 : null;
 
-        List<Long> customerIdsInPreviousPeriod = appointmentRepository.findDistinctCustomerIdsWithAppointmentsBetween(previousPeriodStartDateTime, previousPeriodEndDateTime);
-        Long newCustomersAmongAttendeesPrevious = 0L;
-        if (customerIdsInPreviousPeriod != null && !customerIdsInPreviousPeriod.isEmpty()) {
-            newCustomersAmongAttendeesPrevious = customerRepository.countNewCustomersRegisteredBetweenAndInIdList(previousPeriodStartDateTime, previousPeriodEndDateTime, customerIdsInPreviousPeriod);
-        }
         Double previousPeriodNewCustomerShare = (previousPeriodUniqueCustomers != null && previousPeriodUniqueCustomers > 0 && newCustomersAmongAttendeesPrevious != null)
                 ? ((double) newCustomersAmongAttendeesPrevious / previousPeriodUniqueCustomers) * 100
                 : null;
@@ -247,7 +251,6 @@ public class StatisticsService {
                 previousPeriodNewCustomerShare != null ? BigDecimal.valueOf(previousPeriodNewCustomerShare) : null
         );
 
-        Double avgLeadTimeDays = appointmentRepository.getAverageBookingLeadTimeInDays(periodStartDateTime, periodEndDateTime);
         Integer avgBookingLeadTimeValue = (avgLeadTimeDays != null && !avgLeadTimeDays.isNaN() && !avgLeadTimeDays.isInfinite()) ? (int) Math.round(avgLeadTimeDays) : null;
 
 
@@ -257,11 +260,12 @@ public class StatisticsService {
             projectedRevenueNext30DaysValue = dailyAvgRevenue.multiply(BigDecimal.valueOf(30));
         }
 
+        // Kacheln setzt getDetailedAppointmentStats, damit der Zeitraum-Teil gecacht werden kann
         DetailedAppointmentStatsDTO dto = new DetailedAppointmentStatsDTO(
                 totalAppointmentsInPeriod, totalRevenueInPeriod,
                 startDate.format(GERMAN_DATE_FORMATTER), endDate.format(GERMAN_DATE_FORMATTER),
-                todayCount, thisWeekCount, thisMonthCount, totalUpcomingCount,
-                revenueToday, revenueThisWeek, revenueThisMonth
+                0L, 0L, 0L, 0L,
+                null, null, null
         );
 
         dto.setPreviousPeriodTotalAppointments(previousPeriodTotalAppointments);
@@ -274,8 +278,6 @@ public class StatisticsService {
         dto.setCustomerGrowthPercentage(customerGrowthPercentage);
         dto.setAverageAppointmentDurationInPeriod(averageAppointmentDurationInPeriod);
         dto.setAvgBookingsPerCustomer(avgBookingsPerCustomer);
-        dto.setNewBookingsToday(newBookingsTodayCount);
-        dto.setNewBookingsYesterday(newBookingsYesterdayCount);
         dto.setTotalActiveServices(totalActiveServices);
         dto.setCancellationRate(cancellationRateValue);
         dto.setPreviousPeriodCancellationRate(previousPeriodCancellationRate);
@@ -285,10 +287,20 @@ public class StatisticsService {
         dto.setNewCustomerShareChangePercentage(newCustomerShareChangePercentage);
         dto.setAvgBookingLeadTime(avgBookingLeadTimeValue);
         dto.setProjectedRevenueNext30Days(projectedRevenueNext30DaysValue);
+        dto.setPartialResult(!batch.isComplete());
 
         return dto;
     }
 
+    // Wie viele der Kunden mit Terminen im Zeitraum sich auch in diesem Zeitraum registriert haben
+    private Long countNewCustomersAmongAttendees(LocalDateTime start, LocalDateTime end) {
+        List<Long> customerIds = appointmentRepository.findDistinctCustomerIdsWithAppointmentsBetween(start, end);
+        if (customerIds == null || customerIds.isEmpty()) {
+            return 0L;
+        }
+        return customerRepository.countNewCustomersRegisteredBetweenAndInIdList(start, end, customerIds);
+    }
+
     private Double calculatePercentageChange(BigDecimal currentValue, BigDecimal previousValue) {
         return calculatePercentageChange(currentValue, previousValue, true);
     }
@@ -305,12 +317,13 @@ public class StatisticsService {
     }
 
 
-    private BigDecimal calculateRevenueForPeriod(LocalDateTime start, LocalDateTime end) {
-        List<Appointment> appointmentsInPeriod = appointmentRepository.findByStartTimeBetween(start, end);
-        return appointmentsInPeriod.stream()
-                .filter(appointment -> appointment.getService() != null && appointment.getService().getPrice() > 0 && (appointment.getStatus() == null || appointment.getStatus() != AppointmentStatus.CANCELLED))
-                .map(appointment -> BigDecimal.valueOf(appointment.getService().getPrice()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    // SUM liefert null, wenn im Abfragebereich keine Termine liegen
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private static BigDecimal toMoney(Double value) {
+        return value != null ? BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
     }
 
     public List<DailyAppointmentsDTO> getTodayAndUpcomingAppointments() {
@@ -347,64 +360,26 @@ public class StatisticsService {
                 .collect(Collectors.toList());
     }
     public List<AppointmentsPerDayOfWeekDTO> getAppointmentsPerDayOfWeek(LocalDate startDate, LocalDate endDate) {
-        LocalDateTime periodStartDateTime = startDate.atStartOfDay();
-        LocalDateTime periodEndDateTime = endDate.atTime(LocalTime.MAX);
-
-        logger.info("Suche Termine pro Wochentag von {} bis {}", periodStartDateTime, periodEndDateTime);
-        List<Map<String, Object>> results = appointmentRepository.countAppointmentsPerDayOfWeekBetweenNative(periodStartDateTime, periodEndDateTime);
+        return statisticsCache.getOrLoad("per-day-of-week", startDate, endDate, List.of(),
+                () -> loadAppointmentsPerDayOfWeek(startDate, endDate));
+    }
 
-        List<AppointmentsPerDayOfWeekDTO> dailyStats = new ArrayList<>();
-        DayOfWeek[] daysInGermanOrder = {
-                DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY,
-                DayOfWeek.FRIDAY, DayOfWeek.SATURDAY, DayOfWeek.SUNDAY
-        };
+    private List<AppointmentsPerDayOfWeekDTO> loadAppointmentsPerDayOfWeek(LocalDate startDate, LocalDate endDate) {
+        logger.info("Suche Termine pro Wochentag von {} bis {}", startDate, endDate);
+        // Höchstens eine Zeile pro Tag aus der Tagesstatistik, der Wochentag ergibt sich aus dem Datum
+        List<Map<String, Object>> results = dailyAppointmentStatRepository.sumActivePerDateBetween(startDate, endDate);
 
-        for (DayOfWeek day : daysInGermanOrder) {
-            dailyStats.add(new AppointmentsPerDayOfWeekDTO(day, day.getDisplayName(TextStyle.FULL, Locale.GERMAN), 0L));
+        Map<DayOfWeek, Long> countsByDay = new EnumMap<>(DayOfWeek.class);
+        for (Map<String, Object> result : results) {
+            LocalDate statDate = (LocalDate) result.get("statDate");
+            countsByDay.merge(statDate.getDayOfWeek(), toLong(result.get("count")), Long::sum);
         }
 
-        results.forEach(result -> {
-            Object dayOfWeekFromDbObj = result.get("DAYOFWEEK"); // H2 returns uppercase
-            if (dayOfWeekFromDbObj == null) dayOfWeekFromDbObj = result.get("dayofweek"); // Fallback for lowercase
-
-            Object countFromDbObj = result.get("COUNT"); // H2 returns uppercase
-            if (countFromDbObj == null) countFromDbObj = result.get("count"); // Fallback for lowercase
-
-
-            if (dayOfWeekFromDbObj == null || countFromDbObj == null) {
-                logger.warn("Eintrag in Wochentagsstatistik übersprungen, da Schlüssel 'DAYOFWEEK' oder 'COUNT' fehlen. Vorhandene Schlüssel: {}", result.keySet());
-                return;
-            }
-
-            int dayOfWeekFromDb;
-            try {
-                dayOfWeekFromDb = ((Number) dayOfWeekFromDbObj).intValue();
-            } catch (ClassCastException e) {
-                logger.error("Fehler beim Casten von DAYOFWEEK: {} mit Wert: {}", dayOfWeekFromDbObj.getClass(), dayOfWeekFromDbObj, e);
-                return;
-            }
-
-            DayOfWeek actualDayOfWeek;
-            switch (dayOfWeekFromDb) {
-                case 1: actualDayOfWeek = DayOfWeek.SUNDAY; break;
-                case 2: actualDayOfWeek = DayOfWeek.MONDAY; break;
-                case 3: actualDayOfWeek = DayOfWeek.TUESDAY; break;
-                case 4: actualDayOfWeek = DayOfWeek.WEDNESDAY; break;
-                case 5: actualDayOfWeek = DayOfWeek.THURSDAY; break;
-                case 6: actualDayOfWeek = DayOfWeek.FRIDAY; break;
-                case 7: actualDayOfWeek = DayOfWeek.SATURDAY; break;
-                default:
-                    logger.warn("Ungültiger Wochentagswert aus DB: {}", dayOfWeekFromDb);
-                    return;
-            }
-
-            long count = ((Number) countFromDbObj).longValue();
-
-            dailyStats.stream()
-                    .filter(dto -> dto.getDayOfWeek() == actualDayOfWeek)
-                    .findFirst()
-                    .ifPresent(dto -> dto.setAppointmentCount(count));
-        });
+        List<AppointmentsPerDayOfWeekDTO> dailyStats = new ArrayList<>();
+        // DayOfWeek.values() beginnt mit Montag, entspricht also der deutschen Reihenfolge
+        for (DayOfWeek day : DayOfWeek.values()) {
+            dailyStats.add(new AppointmentsPerDayOfWeekDTO(day, day.getDisplayName(TextStyle.FULL, Locale.GERMAN), countsByDay.getOrDefault(day, 0L)));
+        }
 
         logger.info("Verarbeitete Termine pro Wochentag: {}", dailyStats);
         return dailyStats;
@@ -412,111 +387,131 @@ public class StatisticsService {
 
 
     public List<AppointmentsPerServiceDTO> getAppointmentsPerService(LocalDate startDate, LocalDate endDate, int topN) {
-        LocalDateTime periodStartDateTime = startDate.atStartOfDay();
-        LocalDateTime periodEndDateTime = endDate.atTime(LocalTime.MAX);
+        return statisticsCache.getOrLoad("per-service", startDate, endDate, List.of(topN),
+                () -> loadAppointmentsPerService(startDate, endDate, topN));
+    }
 
-        logger.info("Suche Termine pro Service von {} bis {}", periodStartDateTime, periodEndDateTime);
-        List<Map<String, Object>> results = appointmentRepository.countAppointmentsPerServiceBetween(periodStartDateTime, periodEndDateTime);
+    private List<AppointmentsPerServiceDTO> loadAppointmentsPerService(LocalDate startDate, LocalDate endDate, int topN) {
+        logger.info("Suche Termine pro Service von {} bis {}", startDate, endDate);
+        List<Map<String, Object>> results = dailyAppointmentStatRepository.sumActivePerServiceBetween(startDate, endDate);
 
         if (results == null || results.isEmpty()) {
             logger.info("Keine Termine für Service-Statistik im Zeitraum gefunden.");
             return Collections.emptyList();
         }
 
-        long totalAppointmentsInPeriod = results.stream().mapToLong(r -> {
-            Object countObj = r.get("count"); // JPQL returns lowercase
-            if (countObj instanceof Number) return ((Number) countObj).longValue();
-            return 0L;
-        }).sum();
+        List<Long> serviceIds = results.stream().map(r -> (Long) r.get("serviceId")).toList();
+        Map<Long, String> serviceNames = serviceRepository.findAllById(serviceIds).stream()
+                .collect(Collectors.toMap(com.friseursalon.backend.model.Service::getId, service -> Objects.toString(service.getName(), "N/A")));
 
-        return results.stream()
-                .sorted((r1, r2) -> {
-                    long count1 = ((Number) (r1.get("count") != null ? r1.get("count") : 0L)).longValue();
-                    long count2 = ((Number) (r2.get("count") != null ? r2.get("count") : 0L)).longValue();
-                    return Long.compare(count2, count1);
-                })
+        // Wie bisher nach Name gruppiert; gelöschte Dienstleistungen erscheinen unter "N/A"
+        Map<String, Long> countsByServiceName = new LinkedHashMap<>();
+        for (Map<String, Object> result : results) {
+            String serviceName = serviceNames.getOrDefault((Long) result.get("serviceId"), "N/A");
+            countsByServiceName.merge(serviceName, toLong(result.get("count")), Long::sum);
+        }
+        long totalAppointmentsInPeriod = countsByServiceName.values().stream().mapToLong(Long::longValue).sum();
+
+        return countsByServiceName.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
                 .limit(topN)
-                .map(result -> {
-                    String serviceName = (String) result.get("serviceName");
-                    long count = ((Number) result.get("count")).longValue();
+                .map(entry -> {
+                    long count = entry.getValue();
                     double percentage = totalAppointmentsInPeriod > 0 ? ( (double) count / totalAppointmentsInPeriod) * 100 : 0;
-                    return new AppointmentsPerServiceDTO(serviceName, count, Math.round(percentage * 100.0) / 100.0);
+                    return new AppointmentsPerServiceDTO(entry.getKey(), count, Math.round(percentage * 100.0) / 100.0);
                 })
                 .collect(Collectors.toList());
     }
 
     public List<RevenueDataPointDTO> getRevenueOverTime(LocalDate startDate, LocalDate endDate) {
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
+        return statisticsCache.getOrLoad("revenue-over-time", startDate, endDate, List.of(),
+                () -> loadRevenueOverTime(startDate, endDate));
+    }
+
+    private List<RevenueDataPointDTO> loadRevenueOverTime(LocalDate startDate, LocalDate endDate) {
         logger.info("Berechne Umsatzentwicklung für Zeitraum: {} bis {}", startDate, endDate);
 
-        List<Map<String, Object>> results = appointmentRepository.findRevenuePerDayBetween(startDateTime, endDateTime);
-        List<RevenueDataPointDTO> revenueDataPoints = new ArrayList<>();
+        Map<LocalDate, BigDecimal> revenueByDate = new HashMap<>();
+        for (Map<String, Object> result : dailyAppointmentStatRepository.sumActivePerDateBetween(startDate, endDate)) {
+            Object revenueObj = result.get("revenue");
+            if (revenueObj instanceof Number) {
+                revenueByDate.put((LocalDate) result.get("statDate"), new BigDecimal(revenueObj.toString()));
+            }
+        }
 
-        LocalDate currentDate = startDate;
-        while (!currentDate.isAfter(endDate)) {
-            final LocalDate finalCurrentDate = currentDate;
-            Optional<Map<String, Object>> dayData = results.stream()
-                    .filter(r -> {
-                        Object dateObj = r.get("APPOINTMENT_DATE"); // H2 returns uppercase
-                        if (dateObj == null) dateObj = r.get("appointment_date"); // Fallback
-                        if (dateObj instanceof java.sql.Date) {
-                            return ((java.sql.Date) dateObj).toLocalDate().isEqual(finalCurrentDate);
-                        } else if (dateObj instanceof LocalDate) {
-                            return ((LocalDate)dateObj).isEqual(finalCurrentDate);
-                        }
-                        logger.warn("Unerwarteter Datumstyp in getRevenueOverTime: {}", dateObj != null ? dateObj.getClass().getName() : "null");
-                        return false;
-                    })
-                    .findFirst();
-
-            BigDecimal revenue = dayData.map(data -> {
-                Object revenueObj = data.get("DAILY_REVENUE"); // H2 returns uppercase
-                if (revenueObj == null) revenueObj = data.get("daily_revenue"); // Fallback
-                return (revenueObj instanceof Number) ? new BigDecimal(((Number) revenueObj).toString()) : BigDecimal.ZERO;
-            }).orElse(BigDecimal.ZERO);
-
-            revenueDataPoints.add(new RevenueDataPointDTO(currentDate, revenue));
-            currentDate = currentDate.plusDays(1);
+        List<RevenueDataPointDTO> revenueDataPoints = new ArrayList<>();
+        for (LocalDate currentDate = startDate; !currentDate.isAfter(endDate); currentDate = currentDate.plusDays(1)) {
+            revenueDataPoints.add(new RevenueDataPointDTO(currentDate, revenueByDate.getOrDefault(currentDate, BigDecimal.ZERO)));
         }
         logger.info("Umsatzentwicklung berechnet: {} Datenpunkte", revenueDataPoints.size());
         return revenueDataPoints;
     }
 
+    // Umsatz je Dienstleistung mit Vergleich zur gleich langen Vorperiode
+    public List<RevenueByServiceDTO> getRevenueByService(LocalDate startDate, LocalDate endDate) {
+        // Die Vorperiode fließt in die Veränderung ein und gehört deshalb zum Zeitraum des Eintrags
+        return statisticsCache.getOrLoad("revenue-by-service", startDate.minusDays(ChronoUnit.DAYS.between(startDate, endDate) + 1), endDate, List.of(),
+                () -> loadRevenueByService(startDate, endDate));
+    }
+
+    private List<RevenueByServiceDTO> loadRevenueByService(LocalDate startDate, LocalDate endDate) {
+        logger.info("Berechne Umsatz pro Service für Zeitraum: {} bis {}", startDate, endDate);
+        long daysInPeriod = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        List<Map<String, Object>> results = dailyAppointmentStatRepository.sumRevenuePerService(
+                startDate, endDate, startDate.minusDays(daysInPeriod), startDate.minusDays(1));
+
+        List<Long> serviceIds = results.stream().map(result -> (Long) result.get("serviceId")).filter(Objects::nonNull).toList();
+        Map<Long, String> serviceNames = serviceRepository.findAllById(serviceIds).stream()
+                .collect(Collectors.toMap(com.friseursalon.backend.model.Service::getId, service -> Objects.toString(service.getName(), "N/A")));
+
+        return results.stream().map(result -> {
+            Long serviceId = (Long) result.get("serviceId");
+            BigDecimal revenue = toMoney(result.get("revenue") instanceof Number number ? number.doubleValue() : null);
+            BigDecimal previousRevenue = toMoney(result.get("previousRevenue") instanceof Number number ? number.doubleValue() : null);
+            return new RevenueByServiceDTO(
+                    serviceId,
+                    serviceNames.getOrDefault(serviceId, "N/A"),
+                    toLong(result.get("count")),
+                    revenue,
+                    previousRevenue,
+                    calculatePercentageChange(revenue, previousRevenue)
+            );
+        }).collect(Collectors.toList());
+    }
+
     public CapacityUtilizationDTO getCapacityUtilization(LocalDate startDate, LocalDate endDate) {
+        return statisticsCache.getOrLoad("capacity", startDate, endDate, List.of(),
+                () -> loadCapacityUtilization(startDate, endDate));
+    }
+
+    private CapacityUtilizationDTO loadCapacityUtilization(LocalDate startDate, LocalDate endDate) {
         logger.info("Berechne Kapazitätsauslastung für Zeitraum: {} bis {}", startDate, endDate);
         long totalAvailableMinutes = 0;
         long totalBookedMinutes = 0;
 
-        List<WorkingHours> allWorkingHours = workingHoursRepository.findAll();
-        Map<DayOfWeek, WorkingHours> workingHoursMap = allWorkingHours.stream()
-                .collect(Collectors.toMap(WorkingHours::getDayOfWeek, wh -> wh));
+        Map<DayOfWeek, WorkingHours> workingHoursMap = workingHoursService.getWorkingHoursByDay();
+
+        // Eine gruppierte Abfrage für die gebuchten Minuten je Tag, Blockaden für den ganzen Zeitraum aus dem Stand im Speicher
+        Map<LocalDate, Long> bookedMinutesByDate = new HashMap<>();
+        for (Map<String, Object> result : dailyAppointmentStatRepository.sumActivePerDateBetween(startDate, endDate)) {
+            bookedMinutesByDate.put((LocalDate) result.get("statDate"), toLong(result.get("bookedMinutes")));
+        }
+        Map<LocalDate, List<BlockedTimeSlot>> blocksByDate = blockedTimeSlotService.getBlocksBetween(startDate, endDate);
 
-        LocalDate currentDate = startDate;
-        while (!currentDate.isAfter(endDate)) {
+        List<DailyCapacityDTO> dailyUtilization = new ArrayList<>();
+        for (LocalDate currentDate = startDate; !currentDate.isAfter(endDate); currentDate = currentDate.plusDays(1)) {
             WorkingHours wh = workingHoursMap.get(currentDate.getDayOfWeek());
+            long dailyAvailableMinutes = 0;
             if (wh != null && !wh.isClosed() && wh.getStartTime() != null && wh.getEndTime() != null) {
-                long dailyAvailableMinutes = Duration.between(wh.getStartTime(), wh.getEndTime()).toMinutes();
-
-                List<BlockedTimeSlot> blocksOnThisDate = blockedTimeSlotService.getBlocksForDate(currentDate);
-                for (BlockedTimeSlot block : blocksOnThisDate) {
-                    LocalTime effectiveBlockStart = block.getStartTime().isBefore(wh.getStartTime()) ? wh.getStartTime() : block.getStartTime();
-                    LocalTime effectiveBlockEnd = block.getEndTime().isAfter(wh.getEndTime()) ? wh.getEndTime() : block.getEndTime();
-
-                    if (effectiveBlockEnd.isAfter(effectiveBlockStart)) {
-                        dailyAvailableMinutes -= Duration.between(effectiveBlockStart, effectiveBlockEnd).toMinutes();
-                    }
-                }
-                totalAvailableMinutes += Math.max(0, dailyAvailableMinutes);
+                long openingMinutes = Math.max(0, Duration.between(wh.getStartTime(), wh.getEndTime()).toMinutes());
+                dailyAvailableMinutes = Math.max(0, openingMinutes - blockedMinutesWithin(blocksByDate.getOrDefault(currentDate, List.of()), wh));
             }
+            long dailyBookedMinutes = bookedMinutesByDate.getOrDefault(currentDate, 0L);
+            double dailyPercentage = dailyAvailableMinutes > 0 ? ((double) dailyBookedMinutes / dailyAvailableMinutes) * 100 : 0;
+            dailyUtilization.add(new DailyCapacityDTO(currentDate, dailyAvailableMinutes, dailyBookedMinutes, Math.round(dailyPercentage * 100.0) / 100.0));
 
-            List<Appointment> appointmentsOnDate = appointmentRepository.findByStartTimeBetween(currentDate.atStartOfDay(), currentDate.atTime(LocalTime.MAX));
-            for (Appointment app : appointmentsOnDate) {
-                if (app.getService() != null && (app.getStatus() == null || app.getStatus() != AppointmentStatus.CANCELLED)) {
-                    totalBookedMinutes += app.getService().getDurationMinutes();
-                }
-            }
-            currentDate = currentDate.plusDays(1);
+            totalAvailableMinutes += dailyAvailableMinutes;
+            totalBookedMinutes += dailyBookedMinutes;
         }
 
         double utilizationPercentage = 0;
@@ -532,24 +527,46 @@ public class StatisticsService {
                 totalAvailableMinutes,
                 totalBookedMinutes,
                 startDate.format(GERMAN_DATE_FORMATTER),
-                endDate.format(GERMAN_DATE_FORMATTER)
+                endDate.format(GERMAN_DATE_FORMATTER),
+                dailyUtilization
         );
     }
 
+    // Von Blockaden belegte Minuten innerhalb der Öffnungszeit; überlappende Blockaden zählen nur einmal
+    private static long blockedMinutesWithin(List<BlockedTimeSlot> blocks, WorkingHours wh) {
+        List<BlockedTimeSlot> sortedBlocks = blocks.stream()
+                .filter(block -> block.getStartTime() != null && block.getEndTime() != null)
+                .sorted(Comparator.comparing(BlockedTimeSlot::getStartTime))
+                .toList();
+        long blockedMinutes = 0;
+        LocalTime coveredUntil = wh.getStartTime();
+        for (BlockedTimeSlot block : sortedBlocks) {
+            LocalTime effectiveBlockStart = block.getStartTime().isBefore(coveredUntil) ? coveredUntil : block.getStartTime();
+            LocalTime effectiveBlockEnd = block.getEndTime().isAfter(wh.getEndTime()) ? wh.getEndTime() : block.getEndTime();
+            if (effectiveBlockEnd.isAfter(effectiveBlockStart)) {
+                blockedMinutes += Duration.between(effectiveBlockStart, effectiveBlockEnd).toMinutes();
+                coveredUntil = effectiveBlockEnd;
+            }
+        }
+        return blockedMinutes;
+    }
+
     public List<AppointmentsByHourDTO> getAppointmentsByHourOfDay(LocalDate startDate, LocalDate endDate) {
-        LocalDateTime periodStartDateTime = startDate.atStartOfDay();
-        LocalDateTime periodEndDateTime = endDate.atTime(LocalTime.MAX);
+        return statisticsCache.getOrLoad("by-hour", startDate, endDate, List.of(),
+                () -> loadAppointmentsByHourOfDay(startDate, endDate));
+    }
 
-        logger.info("Suche Termine pro Stunde von {} bis {}", periodStartDateTime, periodEndDateTime);
-        List<Map<String, Object>> results = appointmentRepository.countAppointmentsPerHourBetweenNative(periodStartDateTime, periodEndDateTime);
-        logger.info("DB Results für Termine pro Stunde: {}", results);
+    private List<AppointmentsByHourDTO> loadAppointmentsByHourOfDay(LocalDate startDate, LocalDate endDate) {
+        logger.info("Suche Termine pro Stunde von {} bis {}", startDate, endDate);
+        List<Map<String, Object>> results = dailyAppointmentStatRepository.sumActivePerHourBetween(startDate, endDate);
+        logger.debug("Tagesstatistik für Termine pro Stunde: {}", results);
 
 
         List<AppointmentsByHourDTO> hourlyStats = new ArrayList<>();
         LocalTime earliestOpening = LocalTime.MAX;
         LocalTime latestClosing = LocalTime.MIN;
 
-        List<WorkingHours> allWorkingHours = workingHoursRepository.findAll();
+        Collection<WorkingHours> allWorkingHours = workingHoursService.getWorkingHoursByDay().values();
         if (allWorkingHours.isEmpty()) {
             earliestOpening = LocalTime.of(8,0);
             latestClosing = LocalTime.of(20,0);
@@ -573,35 +590,14 @@ public class StatisticsService {
             hourlyStats.add(new AppointmentsByHourDTO(i, 0L));
         }
 
-        results.forEach(result -> {
-            // Native Queries mit H2 geben Spaltennamen oft in Großbuchstaben zurück.
-            Object hourFromDbObj = result.get("APPOINTMENT_HOUR");
-            if (hourFromDbObj == null) hourFromDbObj = result.get("appointment_hour"); // Fallback für den Fall, dass es doch klein geschrieben ist
-
-            Object countFromDbObj = result.get("APPOINTMENT_COUNT");
-            if (countFromDbObj == null) countFromDbObj = result.get("appointment_count");
-
-
-            if (hourFromDbObj == null || countFromDbObj == null) {
-                logger.warn("Eintrag in Stundenstatistik übersprungen, da Schlüssel 'APPOINTMENT_HOUR' oder 'APPOINTMENT_COUNT' fehlen. Vorhandene Schlüssel: {}", result.keySet());
-                return;
-            }
-
-            int hour;
-            try {
-                hour = ((Number) hourFromDbObj).intValue();
-            } catch (ClassCastException e) {
-                logger.error("Fehler beim Casten von APPOINTMENT_HOUR: {} mit Wert: {}", hourFromDbObj.getClass(), hourFromDbObj, e);
-                return;
-            }
-
-            long count = ((Number) countFromDbObj).longValue();
-
+        for (Map<String, Object> result : results) {
+            int hour = ((Number) result.get("hourOfDay")).intValue();
+            long count = toLong(result.get("count"));
             hourlyStats.stream()
                     .filter(dto -> dto.getHour() == hour)
                     .findFirst()
                     .ifPresent(dto -> dto.setAppointmentCount(count));
-        });
+        }
         logger.info("Verarbeitete Termine pro Stunde: {}", hourlyStats);
         return hourlyStats;
     }
@@ -1,6 +1,7 @@
 // friseursalon-backend/src/main/java/com/friseursalon/backend/service/UserService.java
 package com.friseursalon.backend.service;
 
+import com.friseursalon.backend.cache.UserDetailsCache;
 import com.friseursalon.backend.model.Customer;
 import com.friseursalon.backend.model.ERole;
 import com.friseursalon.backend.model.Role;
@@ -17,8 +18,11 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.friseursalon.backend.security.details.UserDetailsImpl;
+import com.friseursalon.backend.security.jwt.TokenVersionRegistry;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -36,40 +40,73 @@ public class UserService implements UserDetailsService {
     private final PasswordEncoder passwordEncoder;
     private final CustomerService customerService;
     private final CustomerRepository customerRepository;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final UserDetailsCache userDetailsCache;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
 
     @Autowired
     public UserService(UserRepository userRepository,
                        RoleRepository roleRepository,
                        PasswordEncoder passwordEncoder,
                        CustomerService customerService,
-                       CustomerRepository customerRepository) {
+                       CustomerRepository customerRepository,
+                       TokenVersionRegistry tokenVersionRegistry,
+                       UserDetailsCache userDetailsCache,
+                       PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
         this.customerService = customerService;
         this.customerRepository = customerRepository;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.userDetailsCache = userDetailsCache;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
+    // Ohne @Transactional: ein Cache-Treffer soll weder Transaktion noch Verbindung aus dem Pool belegen
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> {
-                    logger.warn("Benutzer nicht gefunden mit E-Mail: {}", email);
-                    return new UsernameNotFoundException("Benutzer nicht gefunden mit E-Mail: " + email);
-                });
-        return UserDetailsImpl.build(user);
+        UserDetailsImpl cached = userDetailsCache.get(email);
+        if (cached != null) {
+            return cached;
+        }
+        long loadGeneration = userDetailsCache.currentGeneration();
+        // Die Rollen werden lazy geladen und müssen innerhalb der Transaktion gelesen werden
+        UserDetailsImpl userDetails = readOnlyTransaction.execute(status ->
+                userRepository.findByEmail(email).map(UserDetailsImpl::build).orElse(null));
+        if (userDetails == null) {
+            logger.warn("Benutzer nicht gefunden mit E-Mail: {}", email);
+            throw new UsernameNotFoundException("Benutzer nicht gefunden mit E-Mail: " + email);
+        }
+        userDetailsCache.putIfUnchanged(email, userDetails, loadGeneration);
+        return userDetails;
     }
 
-    @Transactional
+    // Passwort-Hashing (bis password-hashing.timeout-ms) und Verifikation laufen in den folgenden Methoden vor der
+    // Transaktion, damit währenddessen keine Verbindung aus dem Pool belegt ist
     public User registerNewUser(String firstName, String lastName, String email, String password, String phoneNumber, Set<String> strRoles) {
         logger.info("Registriere neuen Benutzer mit E-Mail: {}", email);
+        ensureEmailAvailable(email);
+        String encodedPassword = passwordEncoder.encode(password);
+        return transaction.execute(status -> {
+            // Erneut prüfen: die E-Mail kann während des Hashens vergeben worden sein
+            ensureEmailAvailable(email);
+            return saveNewUser(firstName, lastName, email, encodedPassword, phoneNumber, strRoles);
+        });
+    }
+
+    private void ensureEmailAvailable(String email) {
         if (userRepository.existsByEmail(email)) {
             logger.warn("Registrierungsversuch für bereits existierende E-Mail: {}", email);
             throw new RuntimeException("Fehler: E-Mail ist bereits vergeben!");
         }
+    }
 
-        User user = new User(email, passwordEncoder.encode(password), firstName, lastName, phoneNumber);
+    private User saveNewUser(String firstName, String lastName, String email, String encodedPassword, String phoneNumber, Set<String> strRoles) {
+        User user = new User(email, encodedPassword, firstName, lastName, phoneNumber);
 
         Set<Role> roles = new HashSet<>();
         if (strRoles == null || strRoles.isEmpty()) {
@@ -124,6 +161,7 @@ public class UserService implements UserDetailsService {
         user.setLastName(profileUpdateRequest.getLastName());
         user.setPhoneNumber(profileUpdateRequest.getPhoneNumber());
         User updatedUser = userRepository.save(user);
+        userDetailsCache.invalidate(user.getEmail());
         logger.info("Benutzerprofil für ID {} aktualisiert.", userId);
 
         Optional<Customer> customerOpt = customerRepository.findByEmail(user.getEmail());
@@ -146,28 +184,36 @@ public class UserService implements UserDetailsService {
         return updatedUser;
     }
 
-    @Transactional
     public void changeUserPassword(Long userId, String currentPassword, String newPassword) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    logger.warn("Benutzer für Passwortänderung nicht gefunden. ID: {}", userId);
-                    return new RuntimeException("Benutzer nicht gefunden.");
-                });
-
-        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+        String storedPassword = findUserForPasswordChange(userId).getPassword();
+        if (!passwordEncoder.matches(currentPassword, storedPassword)) {
             logger.warn("Ungültiges aktuelles Passwort für Benutzer-ID {}.", userId);
             throw new RuntimeException("Ungültiges aktuelles Passwort.");
         }
-        if (passwordEncoder.matches(newPassword, user.getPassword())) {
+        // Das aktuelle Passwort ist bestätigt; ein Textvergleich ersetzt den zweiten BCrypt-Abgleich
+        if (newPassword.equals(currentPassword)) {
             logger.warn("Neues Passwort ist identisch mit dem alten Passwort für Benutzer-ID {}.", userId);
             throw new RuntimeException("Das neue Passwort darf nicht mit dem alten Passwort identisch sein.");
         }
+        String encodedPassword = passwordEncoder.encode(newPassword);
 
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        transaction.executeWithoutResult(status -> {
+            User user = findUserForPasswordChange(userId);
+            user.setPassword(encodedPassword);
+            revokeIssuedTokens(user);
+            userRepository.save(user);
+        });
         logger.info("Passwort für Benutzer-ID {} erfolgreich geändert.", userId);
     }
 
+    private User findUserForPasswordChange(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> {
+                    logger.warn("Benutzer für Passwortänderung nicht gefunden. ID: {}", userId);
+                    return new RuntimeException("Benutzer nicht gefunden.");
+                });
+    }
+
     @Transactional
     public String createPasswordResetTokenForUser(String email) {
         User user = userRepository.findByEmail(email).orElse(null);
@@ -188,12 +234,24 @@ public class UserService implements UserDetailsService {
         return userRepository.findByResetToken(token);
     }
 
-    @Transactional
     public void changeUserPasswordByToken(User user, String newPassword) {
-        user.setPassword(passwordEncoder.encode(newPassword));
-        user.setResetToken(null);
-        user.setResetTokenExpiryDate(null);
-        userRepository.save(user);
+        String encodedPassword = passwordEncoder.encode(newPassword);
+        transaction.executeWithoutResult(status -> {
+            user.setPassword(encodedPassword);
+            user.setResetToken(null);
+            user.setResetTokenExpiryDate(null);
+            revokeIssuedTokens(user);
+            userRepository.save(user);
+        });
         logger.info("Passwort für Benutzer {} via Token erfolgreich zurückgesetzt.", user.getEmail());
     }
-}
\ No newline at end of file
+
+    // Alle bisher ausgestellten JWTs des Benutzers werden ungültig, sobald die Änderung committet ist
+    // Betrifft auch das gecachte Passwort und die Token-Version in UserDetailsCache
+    private void revokeIssuedTokens(User user) {
+        int newVersion = user.currentTokenVersion() + 1;
+        user.setTokenVersion(newVersion);
+        tokenVersionRegistry.versionRaisedAfterCommit(user.getId(), newVersion);
+        userDetailsCache.invalidate(user.getEmail());
+    }
+}
@@ -1,17 +1,23 @@
 package com.friseursalon.backend.service;
 
+import com.friseursalon.backend.cache.AvailabilityCache;
+import com.friseursalon.backend.cache.StatisticsCache;
 import com.friseursalon.backend.model.WorkingHours;
 import com.friseursalon.backend.repository.WorkingHoursRepository;
 import org.slf4j.Logger; // Import für SLF4J Logger
 import org.slf4j.LoggerFactory; // Import für SLF4J Logger
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.DayOfWeek;
 import java.time.LocalTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -21,10 +27,17 @@ public class WorkingHoursService {
     private static final Logger logger = LoggerFactory.getLogger(WorkingHoursService.class); // Logger Instanz
 
     private final WorkingHoursRepository workingHoursRepository;
+    private final AvailabilityCache availabilityCache;
+    private final StatisticsCache statisticsCache;
+    // Unveränderlicher Wochenplan (Kopien der Entitäten), wird nach jeder Änderung komplett ersetzt
+    private volatile Map<DayOfWeek, WorkingHours> weeklySchedule;
 
     @Autowired
-    public WorkingHoursService(WorkingHoursRepository workingHoursRepository) {
+    public WorkingHoursService(WorkingHoursRepository workingHoursRepository, AvailabilityCache availabilityCache,
+                               StatisticsCache statisticsCache) {
         this.workingHoursRepository = workingHoursRepository;
+        this.availabilityCache = availabilityCache;
+        this.statisticsCache = statisticsCache;
     }
 
     @Transactional
@@ -41,27 +54,69 @@ public class WorkingHoursService {
         }
         workingHours.setClosed(isClosed);
         logger.debug("Saving single working hours for {}: Start: {}, End: {}, Closed: {}", dayOfWeek, workingHours.getStartTime(), workingHours.getEndTime(), workingHours.isClosed());
-        return workingHoursRepository.save(workingHours);
+        WorkingHours savedWorkingHours = workingHoursRepository.save(workingHours);
+        // Zuerst registrieren: Nach-Commit-Callbacks laufen in Registrierungsreihenfolge, und ein Leser, der nach
+        // einer Invalidierung neu rechnet, muss bereits den neuen Wochenplan sehen
+        AfterCommit.run(this::reloadSchedule);
+        availabilityCache.invalidateDayOfWeek(dayOfWeek);
+        // Auslastung und Stundenverteilung rechnen mit den Öffnungszeiten
+        statisticsCache.invalidateAll();
+        return savedWorkingHours;
     }
 
     public Optional<WorkingHours> getWorkingHoursForDay(DayOfWeek dayOfWeek) {
-        return workingHoursRepository.findByDayOfWeek(dayOfWeek);
+        return Optional.ofNullable(getWeeklySchedule().get(dayOfWeek)).map(WorkingHoursService::copyOf);
+    }
+
+    // Alle gespeicherten Arbeitszeiten nach Wochentag (Kopien), ohne Datenbankzugriff
+    public Map<DayOfWeek, WorkingHours> getWorkingHoursByDay() {
+        Map<DayOfWeek, WorkingHours> copies = new EnumMap<>(DayOfWeek.class);
+        getWeeklySchedule().forEach((day, workingHours) -> copies.put(day, copyOf(workingHours)));
+        return copies;
+    }
+
+    // Auch periodisch, damit Änderungen anderer Instanzen ankommen
+    @Scheduled(cron = "${working-hours.schedule.refresh-cron:0 */15 * * * *}")
+    public void reloadSchedule() {
+        synchronized (this) {
+            Map<DayOfWeek, WorkingHours> reloaded = new EnumMap<>(DayOfWeek.class);
+            for (WorkingHours workingHours : workingHoursRepository.findAll()) {
+                reloaded.put(workingHours.getDayOfWeek(), copyOf(workingHours));
+            }
+            weeklySchedule = Collections.unmodifiableMap(reloaded);
+            logger.debug("Wochenplan neu geladen: {} Tage hinterlegt", reloaded.size());
+        }
+    }
+
+    private Map<DayOfWeek, WorkingHours> getWeeklySchedule() {
+        Map<DayOfWeek, WorkingHours> current = weeklySchedule;
+        if (current == null) {
+            synchronized (this) {
+                if (weeklySchedule == null) {
+                    reloadSchedule();
+                }
+                current = weeklySchedule;
+            }
+        }
+        return current;
+    }
+
+    // Losgelöste Kopie, damit Änderungen an zurückgegebenen Objekten den Wochenplan nicht verfälschen
+    private static WorkingHours copyOf(WorkingHours workingHours) {
+        WorkingHours copy = new WorkingHours(workingHours.getDayOfWeek(), workingHours.getStartTime(), workingHours.getEndTime(), workingHours.isClosed());
+        copy.setId(workingHours.getId());
+        return copy;
     }
 
     public List<WorkingHours> getAllWorkingHours() {
-        logger.info("getAllWorkingHours called. Fetching from DB and providing defaults.");
+        Map<DayOfWeek, WorkingHours> schedule = getWeeklySchedule();
         return Arrays.stream(DayOfWeek.values())
                 .map(day -> {
-                    Optional<WorkingHours> optWh = workingHoursRepository.findByDayOfWeek(day);
-                    if (optWh.isPresent()) {
-                        WorkingHours whInDb = optWh.get();
-                        // Logge den Zustand der Entität, wie sie aus der DB gelesen wurde
-                        logger.info("DB Record for {}: ID: {}, Start: {}, End: {}, Closed: {}",
-                                day, whInDb.getId(), whInDb.getStartTime(), whInDb.getEndTime(), whInDb.isClosed());
-                        return whInDb;
+                    WorkingHours stored = schedule.get(day);
+                    if (stored != null) {
+                        return copyOf(stored);
                     } else {
-                        // Logge, dass ein Standardwert verwendet wird
-                        logger.info("No DB record for {}, providing default.", day);
+                        logger.debug("No stored working hours for {}, providing default.", day);
                         if (day == DayOfWeek.SUNDAY) {
                             return new WorkingHours(day, null, null, true);
                         } else if (day == DayOfWeek.SATURDAY) {
@@ -113,7 +168,12 @@ public class WorkingHoursService {
         logger.info("saveAll completed. Flushing changes...");
         workingHoursRepository.flush();
         logger.info("Changes flushed. saveAll returned {} entities.", savedEntities.size());
-        savedEntities.forEach(e -> logger.info("Persisted entity state: ID: {}, Day: {}, Start: {}, End: {}, Closed: {}", e.getId(), e.getDayOfWeek(), e.getStartTime(), e.getEndTime(), e.isClosed()));
+        savedEntities.forEach(e -> logger.debug("Persisted entity state: ID: {}, Day: {}, Start: {}, End: {}, Closed: {}", e.getId(), e.getDayOfWeek(), e.getStartTime(), e.getEndTime(), e.isClosed()));
+        // Wochenplan vor den Invalidierungen neu laden (siehe setWorkingHours)
+        AfterCommit.run(this::reloadSchedule);
+        savedEntities.forEach(e -> availabilityCache.invalidateDayOfWeek(e.getDayOfWeek()));
+        // Auslastung und Stundenverteilung rechnen mit den Öffnungszeiten
+        statisticsCache.invalidateAll();
 
         return savedEntities;
     }
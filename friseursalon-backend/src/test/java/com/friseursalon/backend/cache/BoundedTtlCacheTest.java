@@ -0,0 +1,65 @@
+package com.friseursalon.backend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedTtlCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntryWhenFull() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(2, Duration.ZERO);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEntriesAreNotReturned() throws InterruptedException {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, Duration.ofMillis(20));
+        cache.put("short", 1);
+        cache.put("forever", 2, Duration.ZERO);
+        Thread.sleep(40);
+
+        assertThat(cache.get("short")).isNull();
+        assertThat(cache.get("forever")).isEqualTo(2);
+    }
+
+    @Test
+    void putIfUnchangedStoresOnlyWithoutInterveningInvalidation() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, Duration.ZERO);
+        long loadGeneration = cache.currentGeneration();
+
+        assertThat(cache.putIfUnchanged("a", 1, null, loadGeneration)).isTrue();
+        assertThat(cache.get("a")).isEqualTo(1);
+
+        // Auch die Invalidierung eines anderen oder fehlenden Schlüssels verwirft laufende Berechnungen
+        cache.invalidate("missing");
+        assertThat(cache.putIfUnchanged("b", 2, null, loadGeneration)).isFalse();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.putIfUnchanged("b", 2, null, cache.currentGeneration())).isTrue();
+    }
+
+    @Test
+    void everyInvalidationAdvancesTheGeneration() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, Duration.ZERO);
+        long start = cache.currentGeneration();
+
+        cache.invalidate("a");
+        cache.invalidateIf(key -> false);
+        cache.invalidateAll();
+
+        assertThat(cache.currentGeneration()).isEqualTo(start + 3);
+        // Ungeprüftes put bleibt davon unberührt
+        cache.put("a", 1);
+        assertThat(cache.get("a")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,53 @@
+package com.friseursalon.backend.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatisticsCacheTest {
+
+    private static final LocalDate CLOSED_FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate CLOSED_TO = LocalDate.of(2024, 1, 31);
+
+    private final StatisticsCache cache = new StatisticsCache(100, 60, new SimpleMeterRegistry());
+
+    @Test
+    void closedPeriodIsLoadedOnce() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad("kpis", CLOSED_FROM, CLOSED_TO, List.of(), loads::incrementAndGet);
+        Integer second = cache.getOrLoad("kpis", CLOSED_FROM, CLOSED_TO, List.of(), loads::incrementAndGet);
+
+        assertThat(second).isEqualTo(1);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void resultComputedDuringAnInvalidationIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        // Ohne Transaktion invalidiert invalidateAll sofort, also mitten in der Berechnung
+        cache.getOrLoad("kpis", CLOSED_FROM, CLOSED_TO, List.of(), () -> {
+            cache.invalidateAll();
+            return loads.incrementAndGet();
+        });
+        Integer reloaded = cache.getOrLoad("kpis", CLOSED_FROM, CLOSED_TO, List.of(), loads::incrementAndGet);
+
+        assertThat(reloaded).isEqualTo(2);
+    }
+
+    @Test
+    void resultRejectedByCacheablePredicateIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad("kpis", CLOSED_FROM, CLOSED_TO, List.of(), loads::incrementAndGet, value -> false);
+        Integer reloaded = cache.getOrLoad("kpis", CLOSED_FROM, CLOSED_TO, List.of(), loads::incrementAndGet);
+
+        assertThat(reloaded).isEqualTo(2);
+    }
+}
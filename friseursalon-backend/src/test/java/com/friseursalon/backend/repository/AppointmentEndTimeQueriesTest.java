@@ -0,0 +1,104 @@
+package com.friseursalon.backend.repository;
+
+import com.friseursalon.backend.model.Appointment;
+import com.friseursalon.backend.model.Service;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Gespeicherte Endzeit: Pflege per Bulk-UPDATE an der Entität vorbei und Indexnutzung der Konfliktprüfung
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:appointment_end_time_test;DB_CLOSE_DELAY=-1")
+class AppointmentEndTimeQueriesTest {
+
+    @Configuration
+    @EntityScan(basePackageClasses = Appointment.class)
+    @EnableJpaRepositories(basePackageClasses = AppointmentRepository.class)
+    static class Config {
+    }
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 11, 23, 30);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Test
+    void updateEndTimeForServiceAddsTheNewDurationToTheStart() {
+        Service cut = service(30);
+        Service other = service(60);
+        Appointment appointment = appointment(cut, START);
+        Appointment untouched = appointment(other, START);
+
+        int updated = appointmentRepository.updateEndTimeForService(cut.getId(), 45);
+
+        assertThat(updated).isEqualTo(1);
+        // Über Mitternacht hinweg
+        assertThat(endTimeOf(appointment)).isEqualTo(START.plusMinutes(45));
+        assertThat(endTimeOf(untouched)).isEqualTo(START.plusMinutes(60));
+    }
+
+    @Test
+    void fillMissingEndTimeOnlyTouchesRowsWithoutEndTime() {
+        Service cut = service(30);
+        Appointment missing = appointment(cut, START);
+        Appointment filled = appointment(cut, START.minusHours(2));
+        entityManager.createQuery("UPDATE Appointment a SET a.endTime = NULL WHERE a.id = :id")
+                .setParameter("id", missing.getId())
+                .executeUpdate();
+        entityManager.createQuery("UPDATE Appointment a SET a.endTime = :endTime WHERE a.id = :id")
+                .setParameter("endTime", START.minusHours(1))
+                .setParameter("id", filled.getId())
+                .executeUpdate();
+
+        int updated = appointmentRepository.fillMissingEndTimeForService(cut.getId(), 30);
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(endTimeOf(missing)).isEqualTo(START.plusMinutes(30));
+        assertThat(endTimeOf(filled)).isEqualTo(START.minusHours(1));
+    }
+
+    @Test
+    void conflictRangeIsServedByTheEndStartIndex() {
+        // Dieselbe Bedingung wie findConflictingAppointments; ConflictQueryBenchmark misst sie auf 1 Mio. Zeilen
+        String plan = (String) entityManager.createNativeQuery("EXPLAIN SELECT id FROM appointment " +
+                        "WHERE start_time < TIMESTAMP '2025-03-11 10:45:00' AND end_time > TIMESTAMP '2025-03-11 10:00:00'")
+                .getSingleResult();
+
+        assertThat(plan).containsIgnoringCase("IDX_APPOINTMENT_END_START").doesNotContainIgnoringCase("tableScan");
+    }
+
+    private Service service(int durationMinutes) {
+        Service service = new Service(null, "Leistung", null, 30.0, durationMinutes, null);
+        entityManager.persist(service);
+        return service;
+    }
+
+    private Appointment appointment(Service service, LocalDateTime startTime) {
+        Appointment appointment = new Appointment();
+        appointment.setService(service);
+        appointment.setStartTime(startTime);
+        entityManager.persist(appointment);
+        entityManager.flush();
+        return appointment;
+    }
+
+    private LocalDateTime endTimeOf(Appointment appointment) {
+        return entityManager.createQuery("SELECT a.endTime FROM Appointment a WHERE a.id = :id", LocalDateTime.class)
+                .setParameter("id", appointment.getId())
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,129 @@
+package com.friseursalon.backend.repository;
+
+import com.friseursalon.backend.model.Appointment;
+import com.friseursalon.backend.model.Service;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vergleicht die Konfliktprüfung über die gespeicherte Endzeit mit der früheren Abfrage, die das Ende pro Zeile
+ * per TIMESTAMPADD aus der Dauer der Dienstleistung berechnet hat, auf 1 Mio. Terminen in H2.
+ * Läuft nur mit {@code mvn test -Pbenchmark}; die Zeiten landen im Log.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:conflict_query_benchmark;DB_CLOSE_DELAY=-1")
+class ConflictQueryBenchmark {
+
+    @Configuration
+    @EntityScan(basePackageClasses = Appointment.class)
+    @EnableJpaRepositories(basePackageClasses = AppointmentRepository.class)
+    static class Config {
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(ConflictQueryBenchmark.class);
+
+    private static final int APPOINTMENTS = 1_000_000;
+    // Ein Termin alle 5 Minuten, rund 9,5 Jahre Historie bis zum Ende des Bestands
+    private static final int MINUTES_BETWEEN_APPOINTMENTS = 5;
+    private static final LocalDateTime FIRST_START = LocalDateTime.of(2016, 1, 1, 0, 0);
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 100;
+
+    // Die Abfrage vor Einführung der Spalte end_time
+    private static final String LEGACY_QUERY = "SELECT a FROM Appointment a WHERE " +
+            "(:excludeId IS NULL OR a.id <> :excludeId) AND " +
+            "a.startTime < :proposedEnd AND " +
+            "FUNCTION('TIMESTAMPADD', MINUTE, a.service.durationMinutes, a.startTime) > :proposedStart";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Test
+    void storedEndTimeAgainstComputedEndTime() {
+        long[] serviceIds = {service(30), service(45), service(90)};
+        long insertStart = System.nanoTime();
+        // Massendaten direkt in SQL, über die Entität wären es Minuten
+        entityManager.createNativeQuery(("INSERT INTO appointment (start_time, end_time, service_id, created_at) " +
+                        "SELECT DATEADD(MINUTE, x * %d, t.first_start), DATEADD(MINUTE, x * %d + s.duration_minutes, t.first_start), " +
+                        "s.id, t.first_start " +
+                        "FROM SYSTEM_RANGE(0, %d) " +
+                        "JOIN service s ON s.id = CASE MOD(x, 3) WHEN 0 THEN %d WHEN 1 THEN %d ELSE %d END " +
+                        "CROSS JOIN (SELECT CAST(:firstStart AS TIMESTAMP) AS first_start) t").formatted(
+                        MINUTES_BETWEEN_APPOINTMENTS, MINUTES_BETWEEN_APPOINTMENTS, APPOINTMENTS - 1,
+                        serviceIds[0], serviceIds[1], serviceIds[2]))
+                .setParameter("firstStart", FIRST_START)
+                .executeUpdate();
+        entityManager.createNativeQuery("ANALYZE").executeUpdate();
+        logger.info("{} Termine in {} ms angelegt", APPOINTMENTS, (System.nanoTime() - insertStart) / 1_000_000);
+
+        // Buchungen liegen fast immer in der nahen Zukunft, also am Ende des Bestands
+        LocalDateTime lastStart = FIRST_START.plusMinutes((long) (APPOINTMENTS - 1) * MINUTES_BETWEEN_APPOINTMENTS);
+        Random random = new Random(42);
+        List<LocalDateTime> probes = new ArrayList<>();
+        for (int i = 0; i < WARMUP_ROUNDS + MEASURED_ROUNDS; i++) {
+            probes.add(lastStart.minusMinutes(random.nextInt(60 * 24 * 30)));
+        }
+
+        Function<LocalDateTime, List<Appointment>> legacy = start -> entityManager.createQuery(LEGACY_QUERY, Appointment.class)
+                .setParameter("proposedStart", start)
+                .setParameter("proposedEnd", start.plusMinutes(45))
+                .setParameter("excludeId", null)
+                .getResultList();
+        Function<LocalDateTime, List<Appointment>> current = start ->
+                appointmentRepository.findConflictingAppointments(start, start.plusMinutes(45), null);
+
+        for (LocalDateTime probe : probes.subList(0, 20)) {
+            assertThat(ids(current.apply(probe))).isEqualTo(ids(legacy.apply(probe)));
+        }
+        double legacyMicros = measure(legacy, probes);
+        double currentMicros = measure(current, probes);
+        logger.info("Konfliktprüfung auf {} Terminen: berechnete Endzeit {} µs, gespeicherte Endzeit {} µs pro Abfrage (Faktor {})",
+                APPOINTMENTS, String.format("%.1f", legacyMicros), String.format("%.1f", currentMicros),
+                String.format("%.1f", legacyMicros / currentMicros));
+    }
+
+    private double measure(Function<LocalDateTime, List<Appointment>> query, List<LocalDateTime> probes) {
+        for (LocalDateTime probe : probes.subList(0, WARMUP_ROUNDS)) {
+            query.apply(probe);
+            entityManager.clear();
+        }
+        long start = System.nanoTime();
+        for (LocalDateTime probe : probes.subList(WARMUP_ROUNDS, probes.size())) {
+            query.apply(probe);
+            entityManager.clear();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / MEASURED_ROUNDS;
+    }
+
+    private long service(int durationMinutes) {
+        Service service = new Service(null, "Leistung " + durationMinutes, null, 30.0, durationMinutes, null);
+        entityManager.persist(service);
+        entityManager.flush();
+        return service.getId();
+    }
+
+    private static List<Long> ids(List<Appointment> appointments) {
+        return appointments.stream().map(Appointment::getId).sorted().toList();
+    }
+}
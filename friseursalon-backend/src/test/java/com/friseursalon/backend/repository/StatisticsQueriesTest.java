@@ -0,0 +1,125 @@
+package com.friseursalon.backend.repository;
+
+import com.friseursalon.backend.model.Appointment;
+import com.friseursalon.backend.model.AppointmentStatus;
+import com.friseursalon.backend.model.DailyAppointmentStat;
+import com.friseursalon.backend.model.Service;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+
+// Die Statistik-Abfragen in HQL gegen H2; PostgresStatisticsQueriesTest führt dieselben Prüfungen gegen PostgreSQL aus
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:statistics_queries_test;DB_CLOSE_DELAY=-1")
+class StatisticsQueriesTest {
+
+    // Eigene Konfiguration statt der Anwendungsklasse, deren initData-Runner den ganzen Service-Graphen braucht
+    @Configuration
+    @EntityScan(basePackageClasses = Appointment.class)
+    @EnableJpaRepositories(basePackageClasses = AppointmentRepository.class)
+    static class Config {
+    }
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 11);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DailyAppointmentStatRepository statRepository;
+
+    @Test
+    void insertGroupsAppointmentsByDayServiceHourAndStatus() {
+        Service cut = service(30, 25.0);
+        Service color = service(90, 80.0);
+        appointment(cut, DAY.atTime(9, 0), null);
+        appointment(cut, DAY.atTime(9, 30), AppointmentStatus.CONFIRMED);
+        appointment(cut, DAY.atTime(9, 45), AppointmentStatus.CONFIRMED);
+        appointment(color, DAY.atTime(14, 0), AppointmentStatus.CANCELLED);
+        appointment(cut, DAY.plusDays(1).atTime(10, 0), null);
+        // Außerhalb des Zeitraums (Ende exklusiv)
+        appointment(cut, DAY.plusDays(2).atStartOfDay(), null);
+
+        int inserted = statRepository.insertFromAppointmentsBetween(DAY.atStartOfDay(), DAY.plusDays(2).atStartOfDay());
+
+        List<DailyAppointmentStat> rows = statRepository.findAll().stream()
+                .sorted(Comparator.comparing(DailyAppointmentStat::getStatDate).thenComparing(DailyAppointmentStat::getHourOfDay)
+                        .thenComparing(row -> String.valueOf(row.getStatus())))
+                .toList();
+        assertThat(inserted).isEqualTo(4);
+        assertThat(rows).extracting(DailyAppointmentStat::getStatDate, DailyAppointmentStat::getHourOfDay, DailyAppointmentStat::getStatus,
+                        DailyAppointmentStat::getAppointmentCount, DailyAppointmentStat::getBookedMinutes)
+                .containsExactly(
+                        tuple(DAY, 9, AppointmentStatus.CONFIRMED, 2L, 60L),
+                        tuple(DAY, 9, null, 1L, 30L),
+                        tuple(DAY, 14, AppointmentStatus.CANCELLED, 1L, 90L),
+                        tuple(DAY.plusDays(1), 10, null, 1L, 30L));
+        assertThat(rows.get(0).getRevenue()).isEqualTo(50.0);
+        assertThat(rows.get(0).getServiceId()).isEqualTo(cut.getId());
+    }
+
+    @Test
+    void averageLeadTimeCountsCalendarDaysOfActiveAppointments() {
+        Service cut = service(30, 25.0);
+        // Tagesgrenzen zählen, nicht volle 24 Stunden: 23:00 -> 09:00 am Folgetag ist ein Tag
+        appointment(cut, DAY.atTime(9, 0), null, DAY.minusDays(1).atTime(23, 0));
+        appointment(cut, DAY.atTime(10, 0), AppointmentStatus.CONFIRMED, DAY.minusDays(3).atTime(8, 0));
+        // Stornierte Termine und Buchungen nach Terminbeginn bleiben außen vor
+        appointment(cut, DAY.atTime(11, 0), AppointmentStatus.CANCELLED, DAY.minusDays(30).atTime(8, 0));
+        appointment(cut, DAY.atTime(12, 0), null, DAY.atTime(13, 0));
+
+        Double average = appointmentRepository.findAverageBookingLeadTimeInDays(DAY.atStartOfDay(), DAY.atTime(23, 59));
+
+        assertThat(average).isCloseTo(2.0, within(1e-9));
+    }
+
+    @Test
+    void averageLeadTimeWithoutAppointmentsIsNull() {
+        assertThat(appointmentRepository.findAverageBookingLeadTimeInDays(DAY.atStartOfDay(), DAY.atTime(23, 59))).isNull();
+    }
+
+    private Service service(int durationMinutes, double price) {
+        Service service = new Service(null, "Leistung", null, price, durationMinutes, null);
+        entityManager.persist(service);
+        return service;
+    }
+
+    private void appointment(Service service, LocalDateTime startTime, AppointmentStatus status) {
+        appointment(service, startTime, status, null);
+    }
+
+    private void appointment(Service service, LocalDateTime startTime, AppointmentStatus status, LocalDateTime createdAt) {
+        Appointment appointment = new Appointment();
+        appointment.setService(service);
+        appointment.setStartTime(startTime);
+        appointment.setStatus(status);
+        entityManager.persist(appointment);
+        if (createdAt != null) {
+            // createdAt setzt Hibernate beim Einfügen selbst (@CreationTimestamp)
+            entityManager.flush();
+            entityManager.createQuery("UPDATE Appointment a SET a.createdAt = :createdAt WHERE a.id = :id")
+                    .setParameter("createdAt", createdAt)
+                    .setParameter("id", appointment.getId())
+                    .executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.friseursalon.backend.security.jwt;
+
+import com.friseursalon.backend.repository.UserRepository;
+import com.friseursalon.backend.security.details.UserDetailsImpl;
+import com.friseursalon.backend.service.UserService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Key;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Anfragen pro Sekunde durch den {@link AuthTokenFilter} gegenüber dem früheren Filter, der das Token mit jeweils
+ * neu abgeleitetem Schlüssel erst validiert und dann ein zweites Mal für den Benutzernamen geparst hat.
+ * Der Benutzer kommt in beiden Fällen ohne Datenbank aus einem Mock, gemessen wird also nur das JWT.
+ * Läuft nur mit {@code mvn test -Pbenchmark}; die Zeiten landen im Log.
+ */
+class AuthTokenFilterBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilterBenchmark.class);
+
+    private static final int WARMUP_REQUESTS = 20_000;
+    private static final int MEASURED_REQUESTS = 100_000;
+
+    private static final String SECRET = secret();
+
+    private final JwtUtils jwtUtils = new JwtUtils(SECRET, 3_600_000);
+    private final UserDetailsImpl user = new UserDetailsImpl(42L, "kundin@example.com", "geheim", "Erika", "Muster", null,
+            List.of(new SimpleGrantedAuthority("ROLE_USER")), 0);
+    private final String token = jwtUtils.generateJwtToken(user);
+
+    private static String secret() {
+        byte[] bytes = new byte[64];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 7 + 3);
+        }
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    @Test
+    void singleParseAgainstDoubleParse() throws Exception {
+        UserService userService = mock(UserService.class);
+        when(userService.loadUserByUsername(anyString())).thenReturn(user);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findRaisedTokenVersions()).thenReturn(List.of());
+
+        Filter legacy = new LegacyAuthTokenFilter(userService);
+        Filter current = authTokenFilter(userService, userRepository, false);
+        Filter stateless = authTokenFilter(userService, userRepository, true);
+
+        double legacyRate = requestsPerSecond(legacy);
+        double currentRate = requestsPerSecond(current);
+        double statelessRate = requestsPerSecond(stateless);
+        logger.info("AuthTokenFilter, Anfragen pro Sekunde (ein Thread): doppelt geparst {}, einmal geparst {} (Faktor {}), " +
+                        "einmal geparst mit Rollen aus dem Token {}",
+                Math.round(legacyRate), Math.round(currentRate), String.format("%.1f", currentRate / legacyRate),
+                Math.round(statelessRate));
+    }
+
+    private AuthTokenFilter authTokenFilter(UserService userService, UserRepository userRepository, boolean statelessAuthorities) {
+        AuthTokenFilter filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "userService", userService);
+        ReflectionTestUtils.setField(filter, "tokenVersionRegistry", new TokenVersionRegistry(userRepository));
+        ReflectionTestUtils.setField(filter, "statelessAuthorities", statelessAuthorities);
+        return filter;
+    }
+
+    private double requestsPerSecond(Filter filter) throws Exception {
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            authenticate(filter);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            authenticate(filter);
+        }
+        return MEASURED_REQUESTS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private void authenticate(Filter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/appointments/my-appointments");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+        SecurityContextHolder.clearContext();
+    }
+
+    // Der Filter vor der Umstellung: validateJwtToken und getUserNameFromJwtToken parsen je einmal, key() leitet
+    // den Schlüssel bei jedem Aufruf neu ab
+    private static final class LegacyAuthTokenFilter extends OncePerRequestFilter {
+
+        private final UserService userService;
+
+        private LegacyAuthTokenFilter(UserService userService) {
+            this.userService = userService;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                throws ServletException, IOException {
+            String headerAuth = request.getHeader("Authorization");
+            String jwt = headerAuth != null && headerAuth.startsWith("Bearer ") ? headerAuth.substring(7) : null;
+            if (jwt != null && validate(jwt)) {
+                String username = Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(jwt).getBody().getSubject();
+                UserDetails userDetails = userService.loadUserByUsername(username);
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+            }
+            filterChain.doFilter(request, response);
+        }
+
+        private static boolean validate(String jwt) {
+            try {
+                Jwts.parserBuilder().setSigningKey(key()).build().parse(jwt);
+                return true;
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+
+        private static Key key() {
+            return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.friseursalon.backend.security.jwt;
+
+import com.friseursalon.backend.security.details.UserDetailsImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Key;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hält das einmalige Parsen ({@link JwtUtils#parseAndValidate}) auf dem Ergebnis der früheren Kombination aus
+ * validateJwtToken und getUserNameFromJwtToken, die das Token zweimal mit jeweils neu aufgebautem Schlüssel geparst hat.
+ */
+class JwtUtilsTest {
+
+    private static final String SECRET = secret((byte) 7);
+    private static final String OTHER_SECRET = secret((byte) 9);
+
+    private final JwtUtils jwtUtils = new JwtUtils(SECRET, 60_000);
+
+    private static String secret(byte seed) {
+        byte[] bytes = new byte[64];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (seed * 31 + i);
+        }
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private static UserDetailsImpl user() {
+        return new UserDetailsImpl(42L, "kundin@example.com", "geheim", "Erika", "Muster", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")), 3);
+    }
+
+    // Frühere Prüfung im AuthTokenFilter: erst validieren, dann erneut parsen; Ausnahmen fing der Filter ab
+    private static Optional<String> legacySubject(String token) {
+        try {
+            Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+            Jwts.parserBuilder().setSigningKey(key).build().parse(token);
+            return Optional.of(Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build()
+                    .parseClaimsJws(token).getBody().getSubject());
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    private void assertSameOutcomeAsLegacy(String token) {
+        assertThat(jwtUtils.parseAndValidate(token).map(JwtClaims::subject)).isEqualTo(legacySubject(token));
+    }
+
+    @Test
+    void validTokenYieldsSubjectAndClaims() {
+        String token = jwtUtils.generateJwtToken(user());
+
+        JwtClaims claims = jwtUtils.parseAndValidate(token).orElseThrow();
+
+        assertThat(claims.subject()).isEqualTo("kundin@example.com");
+        assertThat(claims.userId()).isEqualTo(42L);
+        assertThat(claims.tokenVersion()).isEqualTo(3);
+        assertThat(claims.roles()).containsExactly("ROLE_USER", "ROLE_ADMIN");
+        assertSameOutcomeAsLegacy(token);
+    }
+
+    @Test
+    void legacyTokenWithoutCustomClaimsIsStillAccepted() {
+        String token = Jwts.builder()
+                .setSubject("alt@example.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS512)
+                .compact();
+
+        JwtClaims claims = jwtUtils.parseAndValidate(token).orElseThrow();
+
+        assertThat(claims.userId()).isNull();
+        assertThat(claims.roles()).isEmpty();
+        assertThat(claims.tokenVersion()).isZero();
+        assertSameOutcomeAsLegacy(token);
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = new JwtUtils(SECRET, -1_000).generateJwtToken(user());
+
+        assertThat(jwtUtils.parseAndValidate(token)).isEmpty();
+        assertSameOutcomeAsLegacy(token);
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        String token = new JwtUtils(OTHER_SECRET, 60_000).generateJwtToken(user());
+
+        assertThat(jwtUtils.parseAndValidate(token)).isEmpty();
+        assertSameOutcomeAsLegacy(token);
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() {
+        String[] parts = jwtUtils.generateJwtToken(user()).split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"admin@example.com\",\"roles\":[\"ROLE_ADMIN\"]}".getBytes());
+        String token = parts[0] + "." + forgedPayload + "." + parts[2];
+
+        assertThat(jwtUtils.parseAndValidate(token)).isEmpty();
+        assertSameOutcomeAsLegacy(token);
+    }
+
+    @Test
+    void unsignedTokenIsRejected() {
+        String token = Jwts.builder()
+                .setSubject("kundin@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .compact();
+
+        assertThat(jwtUtils.parseAndValidate(token)).isEmpty();
+        assertSameOutcomeAsLegacy(token);
+    }
+
+    @Test
+    void malformedOrEmptyTokensAreRejected() {
+        String valid = jwtUtils.generateJwtToken(user());
+        for (String token : List.of("", " ", "kein-jwt", "a.b.c", valid.substring(0, valid.length() - 5))) {
+            assertThat(jwtUtils.parseAndValidate(token)).as(token).isEmpty();
+            assertSameOutcomeAsLegacy(token);
+        }
+    }
+}
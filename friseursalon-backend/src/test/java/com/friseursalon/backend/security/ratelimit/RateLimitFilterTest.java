@@ -0,0 +1,77 @@
+package com.friseursalon.backend.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Route login = new RateLimitProperties.Route();
+        login.setName("login");
+        login.setMethod("POST");
+        login.setPattern("/api/auth/login");
+        login.setRequestsPerMinute(1);
+        login.setBurst(1);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxClients(2);
+        properties.setRoutes(List.of(login));
+        filter = new RateLimitFilter(properties, new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    void leastRecentlyUsedClientIsEvictedWhenTheLimitIsReached() throws Exception {
+        assertThat(login("10.0.0.1")).isEqualTo(200);
+        assertThat(login("10.0.0.2")).isEqualTo(200);
+        // 10.0.0.1 ist damit zuletzt gesehen worden, 10.0.0.2 ist der älteste Client
+        assertThat(login("10.0.0.1")).isEqualTo(429);
+
+        assertThat(login("10.0.0.3")).isEqualTo(200);
+
+        // Der verdrängte Client beginnt neu, die anderen behalten ihren Bucket
+        assertThat(login("10.0.0.1")).isEqualTo(429);
+        assertThat(login("10.0.0.2")).isEqualTo(200);
+        assertThat(filter.trackedClients()).isEqualTo(2);
+        assertThat(meterRegistry.get("rate.limit.evicted").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void newClientsAreNotThrottledByOthersOnceTheLimitIsReached() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertThat(login("10.0.1." + i)).isEqualTo(200);
+        }
+        assertThat(meterRegistry.get("rate.limit.rejected").counter().count()).isZero();
+    }
+
+    @Test
+    void otherRoutesAreNotLimited() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/services");
+        request.setRemoteAddr("10.0.0.1");
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            assertThat(response.getStatus()).isEqualTo(200);
+        }
+        assertThat(filter.trackedClients()).isZero();
+    }
+
+    private int login(String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
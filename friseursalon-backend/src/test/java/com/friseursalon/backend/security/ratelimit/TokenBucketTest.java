@@ -0,0 +1,116 @@
+package com.friseursalon.backend.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    // 60 Anfragen pro Minute, also ein Token pro Sekunde
+    private static final long INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    // Beliebiger Startwert; System.nanoTime() kann auch negativ sein
+    private static final long START = -5_000_000_000L;
+
+    @Test
+    void burstIsAvailableAtOnceThenRejected() {
+        TokenBucket bucket = new TokenBucket(INTERVAL, 3, START);
+
+        assertThat(bucket.tryConsume(START)).isZero();
+        assertThat(bucket.tryConsume(START)).isZero();
+        assertThat(bucket.tryConsume(START)).isZero();
+        assertThat(bucket.tryConsume(START)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void rejectionReportsTheWaitUntilTheNextToken() {
+        TokenBucket bucket = new TokenBucket(INTERVAL, 2, START);
+        bucket.tryConsume(START);
+        bucket.tryConsume(START);
+
+        assertThat(bucket.tryConsume(START + INTERVAL / 4)).isEqualTo(INTERVAL * 3 / 4);
+        // Abgelehnte Anfragen verbrauchen nichts, die Wartezeit verschiebt sich nicht
+        assertThat(bucket.tryConsume(START + INTERVAL / 2)).isEqualTo(INTERVAL / 2);
+        assertThat(bucket.tryConsume(START + INTERVAL)).isZero();
+        assertThat(bucket.tryConsume(START + INTERVAL)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void tokensRefillOnePerIntervalUpToTheBurst() {
+        TokenBucket bucket = new TokenBucket(INTERVAL, 3, START);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryConsume(START);
+        }
+
+        // Nach zwei Intervallen sind zwei Tokens zurück
+        long later = START + 2 * INTERVAL;
+        assertThat(bucket.tryConsume(later)).isZero();
+        assertThat(bucket.tryConsume(later)).isZero();
+        assertThat(bucket.tryConsume(later)).isPositive();
+
+        // Lange Pausen füllen höchstens bis zum Burst auf
+        long muchLater = later + 100 * INTERVAL;
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryConsume(muchLater)).isZero();
+        }
+        assertThat(bucket.tryConsume(muchLater)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void steadyRateAtTheIntervalIsNeverRejected() {
+        TokenBucket bucket = new TokenBucket(INTERVAL, 1, START);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(bucket.tryConsume(START + i * INTERVAL)).isZero();
+        }
+    }
+
+    @Test
+    void bucketIsFullOnceAllTokensAreBack() {
+        TokenBucket bucket = new TokenBucket(INTERVAL, 2, START);
+        assertThat(bucket.isFull(START)).isTrue();
+
+        bucket.tryConsume(START);
+        bucket.tryConsume(START);
+        assertThat(bucket.isFull(START)).isFalse();
+        assertThat(bucket.isFull(START + 2 * INTERVAL - 1)).isFalse();
+        assertThat(bucket.isFull(START + 2 * INTERVAL)).isTrue();
+    }
+
+    @Test
+    void concurrentConsumersNeverExceedTheBurst() throws Exception {
+        int burst = 50;
+        TokenBucket bucket = new TokenBucket(INTERVAL, burst, START);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int t = 0; t < futures.length; t++) {
+                futures[t] = executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100; i++) {
+                        if (bucket.tryConsume(START) == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(granted.get()).isEqualTo(burst);
+    }
+}
@@ -0,0 +1,100 @@
+package com.friseursalon.backend.service;
+
+import com.friseursalon.backend.cache.AvailabilityCache;
+import com.friseursalon.backend.dto.BookedIntervalDTO;
+import com.friseursalon.backend.model.Appointment;
+import com.friseursalon.backend.repository.AppointmentRepository;
+import com.friseursalon.backend.repository.ServiceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AppointmentServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void intervalCrossingMidnightIsBucketedIntoBothDays() {
+        BookedIntervalDTO lateAppointment = new BookedIntervalDTO(1L, MONDAY.atTime(23, 30), MONDAY.plusDays(1).atTime(0, 30));
+
+        Map<LocalDate, List<BookedIntervalDTO>> byDate = AppointmentService.groupByOverlappedDate(
+                List.of(lateAppointment), MONDAY, MONDAY.plusDays(2));
+
+        assertThat(byDate).containsOnlyKeys(MONDAY, MONDAY.plusDays(1));
+        assertThat(byDate.get(MONDAY.plusDays(1))).containsExactly(lateAppointment);
+    }
+
+    @Test
+    void intervalEndingAtMidnightStaysOnItsDay() {
+        BookedIntervalDTO untilMidnight = new BookedIntervalDTO(1L, MONDAY.atTime(23, 0), MONDAY.plusDays(1).atStartOfDay());
+
+        assertThat(AppointmentService.groupByOverlappedDate(List.of(untilMidnight), MONDAY, MONDAY.plusDays(1)))
+                .containsOnlyKeys(MONDAY);
+    }
+
+    @Test
+    void intervalStartingBeforeTheRangeIsClippedToIt() {
+        BookedIntervalDTO fromSunday = new BookedIntervalDTO(1L, MONDAY.minusDays(1).atTime(23, 0), MONDAY.atTime(1, 0));
+
+        assertThat(AppointmentService.groupByOverlappedDate(List.of(fromSunday), MONDAY, MONDAY))
+                .containsOnlyKeys(MONDAY);
+    }
+
+    @Test
+    void intervalWithoutEndCountsForItsStartDay() {
+        BookedIntervalDTO legacy = new BookedIntervalDTO(1L, MONDAY.atTime(10, 0), null);
+
+        assertThat(AppointmentService.groupByOverlappedDate(List.of(legacy), MONDAY, MONDAY.plusDays(1)))
+                .containsOnlyKeys(MONDAY);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteFollowsAnAppointmentMovedToAnotherDayBeforeTheLock() {
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+        BookingCoordinator bookingCoordinator = mock(BookingCoordinator.class);
+        DailyStatsRollup dailyStatsRollup = mock(DailyStatsRollup.class);
+        AppointmentService service = new AppointmentService(appointmentRepository, mock(ServiceRepository.class),
+                mock(WorkingHoursService.class), mock(BlockedTimeSlotService.class), mock(AvailabilityCache.class),
+                bookingCoordinator, dailyStatsRollup, mock(ApplicationEventPublisher.class), 30, false);
+
+        List<List<LocalDate>> lockedDays = new ArrayList<>();
+        when(bookingCoordinator.executeForDays(anyCollection(), any())).thenAnswer(invocation -> {
+            lockedDays.add(List.copyOf((Collection<LocalDate>) invocation.getArgument(0)));
+            return ((Supplier<?>) invocation.getArgument(1)).get();
+        });
+        // Ohne Sperre noch am Montag geladen, unter der Sperre bereits auf Dienstag verschoben
+        Appointment detached = appointment(MONDAY.atTime(10, 0));
+        Appointment moved = appointment(MONDAY.plusDays(1).atTime(11, 0));
+        when(appointmentRepository.findById(7L)).thenReturn(Optional.of(detached), Optional.of(moved));
+
+        assertThat(service.deleteUserAppointment(7L, "admin@example.com", true)).isTrue();
+
+        assertThat(lockedDays).containsExactly(List.of(MONDAY), List.of(MONDAY.plusDays(1)));
+        verify(appointmentRepository).delete(moved);
+        verify(dailyStatsRollup).refreshDays(List.of(MONDAY.plusDays(1)));
+    }
+
+    private static Appointment appointment(LocalDateTime startTime) {
+        Appointment appointment = new Appointment();
+        appointment.setId(7L);
+        appointment.setStartTime(startTime);
+        appointment.setEndTime(startTime.plusMinutes(30));
+        return appointment;
+    }
+}
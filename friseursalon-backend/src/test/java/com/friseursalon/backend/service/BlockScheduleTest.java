@@ -0,0 +1,73 @@
+package com.friseursalon.backend.service;
+
+import com.friseursalon.backend.model.BlockedTimeSlot;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlockScheduleTest {
+
+    // Dienstag
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 11);
+
+    @Test
+    void combinesOneOffAndRecurringBlocksOfTheDay() {
+        BlockedTimeSlot lunch = new BlockedTimeSlot("Mittag", DayOfWeek.TUESDAY, LocalTime.of(12, 0), LocalTime.of(13, 0));
+        BlockedTimeSlot training = new BlockedTimeSlot("Schulung", DAY, LocalTime.of(9, 0), LocalTime.of(10, 0));
+        BlockedTimeSlot otherDay = new BlockedTimeSlot("Inventur", DAY.plusDays(1), LocalTime.of(9, 0), LocalTime.of(10, 0));
+
+        BlockSchedule schedule = BlockSchedule.of(List.of(lunch, training, otherDay));
+
+        assertThat(schedule.size()).isEqualTo(3);
+        assertThat(schedule.blocksOn(DAY)).extracting(BlockedTimeSlot::getDescription).containsExactly("Schulung", "Mittag");
+        assertThat(schedule.blocksOn(DAY.plusWeeks(1))).extracting(BlockedTimeSlot::getDescription).containsExactly("Mittag");
+        assertThat(schedule.blocksOn(DAY.plusDays(2))).isEmpty();
+    }
+
+    @Test
+    void blocksWithoutDayOrDateAreIgnored() {
+        BlockedTimeSlot noDay = new BlockedTimeSlot("Ohne Tag", (DayOfWeek) null, LocalTime.of(12, 0), LocalTime.of(13, 0));
+        BlockedTimeSlot noDate = new BlockedTimeSlot("Ohne Datum", (LocalDate) null, LocalTime.of(12, 0), LocalTime.of(13, 0));
+
+        assertThat(BlockSchedule.of(List.of(noDay, noDate)).size()).isZero();
+    }
+
+    @Test
+    void changesToReturnedBlocksDoNotLeakIntoTheSchedule() {
+        BlockedTimeSlot lunch = new BlockedTimeSlot("Mittag", DayOfWeek.TUESDAY, LocalTime.of(12, 0), LocalTime.of(13, 0));
+        BlockSchedule schedule = BlockSchedule.of(List.of(lunch));
+
+        schedule.blocksOn(DAY).get(0).setEndTime(LocalTime.of(18, 0));
+        schedule.blocksOn(DAY).clear();
+
+        assertThat(schedule.blocksOn(DAY)).singleElement()
+                .extracting(BlockedTimeSlot::getEndTime).isEqualTo(LocalTime.of(13, 0));
+    }
+
+    @Test
+    void changesToTheSourceEntitiesDoNotLeakIntoTheSchedule() {
+        BlockedTimeSlot lunch = new BlockedTimeSlot("Mittag", DayOfWeek.TUESDAY, LocalTime.of(12, 0), LocalTime.of(13, 0));
+        BlockSchedule schedule = BlockSchedule.of(List.of(lunch));
+
+        lunch.setStartTime(LocalTime.of(8, 0));
+
+        assertThat(schedule.blocksOn(DAY).get(0).getStartTime()).isEqualTo(LocalTime.of(12, 0));
+    }
+
+    @Test
+    void blocksBetweenContainsEveryDayOfTheRange() {
+        BlockedTimeSlot training = new BlockedTimeSlot("Schulung", DAY, LocalTime.of(9, 0), LocalTime.of(10, 0));
+
+        Map<LocalDate, List<BlockedTimeSlot>> blocksByDate = BlockSchedule.of(List.of(training)).blocksBetween(DAY.minusDays(1), DAY.plusDays(1));
+
+        assertThat(blocksByDate).containsOnlyKeys(DAY.minusDays(1), DAY, DAY.plusDays(1));
+        assertThat(blocksByDate.get(DAY)).hasSize(1);
+        assertThat(blocksByDate.get(DAY.plusDays(1))).isEmpty();
+    }
+}
@@ -0,0 +1,108 @@
+package com.friseursalon.backend.service;
+
+import com.friseursalon.backend.model.BookingDayLock;
+import com.friseursalon.backend.repository.BookingDayLockRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Ein einziger Pool-Platz: das Anlegen fehlender Sperrzeilen darf keine zweite Verbindung brauchen
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:booking_coordinator_test;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=1",
+        "spring.datasource.hikari.connection-timeout=2000"
+})
+class BookingCoordinatorTest {
+
+    // Eigene Konfiguration statt der Anwendungsklasse, deren initData-Runner den ganzen Service-Graphen braucht
+    @Configuration
+    @EntityScan(basePackageClasses = BookingDayLock.class)
+    @EnableJpaRepositories(basePackageClasses = BookingDayLockRepository.class)
+    @Import(BookingCoordinator.class)
+    static class Config {
+    }
+
+    @Autowired
+    private BookingCoordinator bookingCoordinator;
+
+    @Autowired
+    private BookingDayLockRepository bookingDayLockRepository;
+
+    @Test
+    void createsMissingLockRowInsideTheBookingTransaction() {
+        LocalDate day = LocalDate.of(2030, 1, 15);
+
+        String result = bookingCoordinator.executeForDays(List.of(day), () -> "gebucht");
+
+        assertThat(result).isEqualTo("gebucht");
+        assertThat(bookingDayLockRepository.existsById(day)).isTrue();
+        // Zweiter Aufruf findet die Zeile bereits vor
+        assertThat(bookingCoordinator.executeForDays(List.of(day), () -> "erneut")).isEqualTo("erneut");
+        assertThat(bookingDayLockRepository.count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void locksSeveralNewDaysAtOnce() {
+        LocalDate first = LocalDate.of(2030, 2, 1);
+        LocalDate second = LocalDate.of(2030, 2, 3);
+
+        bookingCoordinator.executeForDays(List.of(second, first), () -> null);
+
+        assertThat(bookingDayLockRepository.existsById(first)).isTrue();
+        assertThat(bookingDayLockRepository.existsById(second)).isTrue();
+    }
+
+    @Test
+    void parallelBookingsOnNewDaysShareTheSinglePoolConnection() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<LocalDate>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                LocalDate day = LocalDate.of(2030, 3, 1 + i % 4);
+                results.add(executor.submit(() -> bookingCoordinator.executeForDays(List.of(day), () -> day)));
+            }
+            for (Future<LocalDate> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isNotNull();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (int i = 0; i < 4; i++) {
+            assertThat(bookingDayLockRepository.existsById(LocalDate.of(2030, 3, 1 + i))).isTrue();
+        }
+    }
+
+    @Test
+    void existingDaysVariantDoesNotCreateLockRows() {
+        LocalDate existing = LocalDate.of(2020, 5, 10);
+        bookingCoordinator.executeForDays(List.of(existing), () -> null);
+        long rowsBefore = bookingDayLockRepository.count();
+
+        String result = bookingCoordinator.executeForExistingDays(LocalDate.of(2020, 5, 1), LocalDate.of(2020, 5, 31), () -> "abgeglichen");
+
+        assertThat(result).isEqualTo("abgeglichen");
+        assertThat(bookingDayLockRepository.count()).isEqualTo(rowsBefore);
+        assertThat(bookingDayLockRepository.existsById(LocalDate.of(2020, 5, 11))).isFalse();
+    }
+}
@@ -0,0 +1,165 @@
+package com.friseursalon.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DayOccupancyTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 11);
+
+    private static List<LocalTime> starts(DayOccupancy occupancy, LocalTime opening, int interval, int duration) {
+        return occupancy.findFreeStarts(DayOccupancy.minuteOfDay(opening), interval, duration);
+    }
+
+    private static List<LocalTime> times(String... values) {
+        return Arrays.stream(values).map(LocalTime::parse).toList();
+    }
+
+    @Test
+    void emptyDayOffersEveryGridPointThatEndsByClosing() {
+        DayOccupancy occupancy = DayOccupancy.forOpeningHours(LocalTime.of(9, 0), LocalTime.of(11, 0));
+
+        assertThat(starts(occupancy, LocalTime.of(9, 0), 30, 45))
+                .isEqualTo(times("09:00", "09:30", "10:00"));
+    }
+
+    @Test
+    void closedOrInvalidOpeningHoursHaveNoStarts() {
+        assertThat(starts(DayOccupancy.closed(), LocalTime.of(9, 0), 30, 30)).isEmpty();
+        assertThat(starts(DayOccupancy.forOpeningHours(LocalTime.of(18, 0), LocalTime.of(9, 0)), LocalTime.of(9, 0), 30, 30)).isEmpty();
+        assertThat(starts(DayOccupancy.forOpeningHours(null, LocalTime.of(18, 0)), LocalTime.of(9, 0), 30, 30)).isEmpty();
+    }
+
+    @Test
+    void startedMinuteAtTheEndCountsAsOccupied() {
+        DayOccupancy occupancy = DayOccupancy.forOpeningHours(LocalTime.of(9, 0), LocalTime.of(12, 0));
+        // Endet 10:30:30, die Minute 10:30 ist damit belegt
+        occupancy.occupy(DAY, DAY.atTime(10, 0), DAY.atTime(10, 30, 30));
+
+        assertThat(starts(occupancy, LocalTime.of(9, 0), 30, 30))
+                .isEqualTo(times("09:00", "09:30", "11:00", "11:30"));
+        assertThat(DayOccupancy.minuteOfDayRoundedUp(LocalTime.of(10, 30, 30))).isEqualTo(631);
+        assertThat(DayOccupancy.minuteOfDayRoundedUp(LocalTime.of(10, 30))).isEqualTo(630);
+    }
+
+    @Test
+    void startSecondsAreRoundedDownToTheMinute() {
+        DayOccupancy occupancy = DayOccupancy.forOpeningHours(LocalTime.of(9, 0), LocalTime.of(11, 0));
+        occupancy.occupy(LocalTime.of(9, 59, 45), LocalTime.of(10, 30));
+
+        assertThat(starts(occupancy, LocalTime.of(9, 0), 30, 30))
+                .isEqualTo(times("09:00", "10:30"));
+    }
+
+    @Test
+    void appointmentRunningPastClosingOnlyBlocksUntilClosing() {
+        DayOccupancy occupancy = DayOccupancy.forOpeningHours(LocalTime.of(9, 0), LocalTime.of(10, 0));
+        occupancy.occupy(DAY, DAY.atTime(9, 30), DAY.atTime(10, 30));
+
+        assertThat(starts(occupancy, LocalTime.of(9, 0), 30, 30)).isEqualTo(times("09:00"));
+    }
+
+    @Test
+    void intervalsCrossingMidnightOccupyOnlyTheirPartOfTheDay() {
+        DayOccupancy occupancy = DayOccupancy.forOpeningHours(LocalTime.of(0, 0), LocalTime.of(2, 0));
+        // Beginnt am Vortag, endet 00:45
+        occupancy.occupy(DAY, DAY.minusDays(1).atTime(23, 0), DAY.atTime(0, 45));
+        // Liegt komplett am Folgetag und betrifft diesen Tag nicht
+        occupancy.occupy(DAY, DAY.plusDays(1).atTime(0, 0), DAY.plusDays(1).atTime(1, 0));
+
+        assertThat(starts(occupancy, LocalTime.of(0, 0), 30, 30)).isEqualTo(times("01:00", "01:30"));
+
+        DayOccupancy evening = DayOccupancy.forOpeningHours(LocalTime.of(22, 0), LocalTime.of(23, 59));
+        // Beginnt 23:00 und endet erst am Folgetag: der Rest des Tages ist belegt
+        evening.occupy(DAY, DAY.atTime(23, 0), DAY.plusDays(1).atTime(1, 0));
+
+        assertThat(starts(evening, LocalTime.of(22, 0), 30, 30)).isEqualTo(times("22:00", "22:30"));
+    }
+
+    @Test
+    void blocksOutsideOpeningHoursChangeNothing() {
+        DayOccupancy occupancy = DayOccupancy.forOpeningHours(LocalTime.of(9, 0), LocalTime.of(10, 0));
+        occupancy.occupy(LocalTime.of(7, 0), LocalTime.of(8, 0));
+        occupancy.occupy(LocalTime.of(19, 0), LocalTime.of(20, 0));
+
+        assertThat(starts(occupancy, LocalTime.of(9, 0), 30, 30)).isEqualTo(times("09:00", "09:30"));
+    }
+
+    @Test
+    void blockOverlappingOpeningTimeShiftsTheFirstStart() {
+        DayOccupancy occupancy = DayOccupancy.forOpeningHours(LocalTime.of(9, 0), LocalTime.of(11, 0));
+        occupancy.occupy(LocalTime.of(8, 30), LocalTime.of(9, 15));
+
+        assertThat(starts(occupancy, LocalTime.of(9, 0), 30, 30)).isEqualTo(times("09:30", "10:00", "10:30"));
+    }
+
+    @Test
+    void invalidOrNullIntervalsAreIgnored() {
+        DayOccupancy occupancy = DayOccupancy.forOpeningHours(LocalTime.of(9, 0), LocalTime.of(10, 0));
+        occupancy.occupy(LocalTime.of(9, 30), LocalTime.of(9, 0));
+        occupancy.occupy(null, LocalTime.of(9, 30));
+        occupancy.occupy(DAY, null, DAY.atTime(9, 30));
+
+        assertThat(starts(occupancy, LocalTime.of(9, 0), 30, 30)).isEqualTo(times("09:00", "09:30"));
+    }
+
+    @Test
+    void gapPackingAddsStartsFlushWithNeighbouringAppointments() {
+        DayOccupancy occupancy = DayOccupancy.forOpeningHours(LocalTime.of(9, 0), LocalTime.of(12, 0));
+        occupancy.occupy(LocalTime.of(9, 0), LocalTime.of(9, 40));
+        occupancy.occupy(LocalTime.of(11, 20), LocalTime.of(12, 0));
+
+        assertThat(occupancy.findFreeStarts(DayOccupancy.minuteOfDay(LocalTime.of(9, 0)), 30, 30, false))
+                .isEqualTo(times("10:00", "10:30"));
+        assertThat(occupancy.findFreeStarts(DayOccupancy.minuteOfDay(LocalTime.of(9, 0)), 30, 30, true))
+                .isEqualTo(times("09:40", "10:00", "10:30", "10:50"));
+    }
+
+    @Test
+    void gapPackingSkipsGapsShorterThanTheDuration() {
+        DayOccupancy occupancy = DayOccupancy.forOpeningHours(LocalTime.of(9, 0), LocalTime.of(12, 0));
+        occupancy.occupy(LocalTime.of(9, 0), LocalTime.of(9, 40));
+        occupancy.occupy(LocalTime.of(10, 0), LocalTime.of(12, 0));
+
+        // 09:40 bis 10:00 reicht für 30 Minuten nicht; der bündige Start 09:30 läge in einem Termin
+        assertThat(occupancy.findFreeStarts(DayOccupancy.minuteOfDay(LocalTime.of(9, 0)), 30, 30, true)).isEmpty();
+    }
+
+    @Test
+    void gapPackingAddsAStartFlushWithClosingTime() {
+        DayOccupancy occupancy = DayOccupancy.forOpeningHours(LocalTime.of(9, 0), LocalTime.of(11, 50));
+
+        assertThat(occupancy.findFreeStarts(DayOccupancy.minuteOfDay(LocalTime.of(9, 0)), 30, 30, false))
+                .isEqualTo(times("09:00", "09:30", "10:00", "10:30", "11:00"));
+        assertThat(occupancy.findFreeStarts(DayOccupancy.minuteOfDay(LocalTime.of(9, 0)), 30, 30, true))
+                .isEqualTo(times("09:00", "09:30", "10:00", "10:30", "11:00", "11:20"));
+    }
+
+    @Test
+    void gapPackingDoesNotDuplicateStartsThatFallOnTheGrid() {
+        // Raster ab 09:10: die Lücke beginnt 09:40 (kein halber Stundenwert, aber ein Rasterpunkt) und der
+        // bündige Start vor Schließung 10:40 ist ebenfalls einer
+        DayOccupancy occupancy = DayOccupancy.forOpeningHours(LocalTime.of(9, 10), LocalTime.of(11, 10));
+        occupancy.occupy(LocalTime.of(9, 10), LocalTime.of(9, 40));
+        int gridOrigin = DayOccupancy.minuteOfDay(LocalTime.of(9, 10));
+
+        assertThat(occupancy.findFreeStarts(gridOrigin, 30, 30, true))
+                .isEqualTo(occupancy.findFreeStarts(gridOrigin, 30, 30, false))
+                .isEqualTo(times("09:40", "10:10", "10:40"));
+    }
+
+    @Test
+    void rejectsNonPositiveIntervalOrDuration() {
+        DayOccupancy occupancy = DayOccupancy.forOpeningHours(LocalTime.of(9, 0), LocalTime.of(10, 0));
+
+        assertThatThrownBy(() -> occupancy.findFreeStarts(540, 0, 30)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> occupancy.findFreeStarts(540, 30, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
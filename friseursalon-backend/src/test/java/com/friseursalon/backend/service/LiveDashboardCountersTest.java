@@ -0,0 +1,81 @@
+package com.friseursalon.backend.service;
+
+import com.friseursalon.backend.dto.DashboardTilesDTO;
+import com.friseursalon.backend.model.AppointmentStatus;
+import com.friseursalon.backend.repository.AppointmentRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class LiveDashboardCountersTest {
+
+    private final AppointmentRepository repository = mock(AppointmentRepository.class);
+    private final LiveDashboardCounters counters = new LiveDashboardCounters(repository);
+
+    private static AppointmentChangedEvent bookedToday() {
+        LocalDateTime start = LocalDate.now().atStartOfDay();
+        return new AppointmentChangedEvent(null,
+                new AppointmentChangedEvent.State(start, AppointmentStatus.CONFIRMED, 40.0, LocalDateTime.now()));
+    }
+
+    private static DashboardTilesDTO tiles(long today) {
+        return new DashboardTilesDTO(today, today * 40.0, today, today * 40.0, today, today * 40.0, 0L, today, 0L);
+    }
+
+    private void whenAggregating(Runnable duringQuery, DashboardTilesDTO result) {
+        doAnswer(invocation -> {
+            duringQuery.run();
+            return result;
+        }).when(repository).aggregateDashboardTiles(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void changeCommittedDuringTheAggregateQueryIsReplayedOntoTheNewWindow() {
+        whenAggregating(() -> { }, tiles(2));
+        counters.reconcile();
+
+        // Der Commit fällt in die laufende Abfrage und fehlt in deren Ergebnis
+        whenAggregating(() -> counters.onAppointmentChanged(bookedToday()), tiles(2));
+        counters.reconcile();
+
+        DashboardTilesDTO result = counters.getTiles();
+        assertThat(result.getTodayActiveCount()).isEqualTo(3);
+        assertThat(result.getTodayRevenue()).isEqualTo(120.0);
+        assertThat(result.getCreatedTodayCount()).isEqualTo(3);
+    }
+
+    @Test
+    void changesOutsideAReconcileAreAppliedDirectlyAndOnlyOnce() {
+        whenAggregating(() -> { }, tiles(1));
+        counters.reconcile();
+
+        counters.onAppointmentChanged(bookedToday());
+
+        assertThat(counters.getTiles().getTodayActiveCount()).isEqualTo(2);
+    }
+
+    @Test
+    void failedReconcileAppliesHeldBackChangesToThePreviousWindow() {
+        whenAggregating(() -> { }, tiles(1));
+        counters.reconcile();
+
+        whenAggregating(() -> {
+            counters.onAppointmentChanged(bookedToday());
+            throw new IllegalStateException("Datenbank nicht erreichbar");
+        }, null);
+        assertThatThrownBy(counters::reconcile).isInstanceOf(IllegalStateException.class);
+
+        whenAggregating(() -> { }, tiles(1));
+        // Der bisherige Stand gilt weiter, mit der zurückgehaltenen Änderung
+        assertThat(counters.getTiles().getTodayActiveCount()).isEqualTo(2);
+        counters.onAppointmentChanged(bookedToday());
+        assertThat(counters.getTiles().getTodayActiveCount()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,54 @@
+package com.friseursalon.backend.service;
+
+import com.friseursalon.backend.cache.AvailabilityCache;
+import com.friseursalon.backend.cache.StatisticsCache;
+import com.friseursalon.backend.model.Service;
+import com.friseursalon.backend.repository.AppointmentRepository;
+import com.friseursalon.backend.repository.ServiceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ServiceServiceTest {
+
+    private final ServiceRepository serviceRepository = mock(ServiceRepository.class);
+    private ServiceService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ServiceService(serviceRepository, mock(AppointmentRepository.class),
+                new AvailabilityCache(100, 300, new SimpleMeterRegistry()), mock(DailyStatsRollup.class),
+                mock(LiveDashboardCounters.class), new StatisticsCache(100, 60, new SimpleMeterRegistry()));
+        when(serviceRepository.save(any(Service.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void rejectsNonPositiveSlotIntervals() {
+        when(serviceRepository.findById(1L)).thenReturn(Optional.of(new Service(1L, "Schnitt", null, 30.0, 30, null)));
+
+        assertThatThrownBy(() -> service.createService(new Service(null, "Schnitt", null, 30.0, 30, 0)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.updateService(1L, new Service(null, "Schnitt", null, 30.0, 30, -15)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(serviceRepository, never()).save(any(Service.class));
+    }
+
+    @Test
+    void acceptsAPositiveOrMissingSlotInterval() {
+        when(serviceRepository.findById(1L)).thenReturn(Optional.of(new Service(1L, "Schnitt", null, 30.0, 30, 15)));
+
+        assertThat(service.createService(new Service(null, "Schnitt", null, 30.0, 30, 20)).getSlotIntervalMinutes()).isEqualTo(20);
+        // null fällt auf das Salon-Raster zurück
+        assertThat(service.updateService(1L, new Service(null, "Schnitt", null, 30.0, 30, null)).getSlotIntervalMinutes()).isNull();
+    }
+}
@@ -0,0 +1,90 @@
+package com.friseursalon.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hält die Bitmap-Slotberechnung ({@link DayOccupancy}) auf dem Ergebnis der früheren Schleife, die jeden
+ * Rasterpunkt gegen jeden Termin und jede Blockade geprüft hat. Zufällige, aber reproduzierbare Tage.
+ */
+class SlotComputationEquivalenceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 11);
+    private static final int SLOT_INTERVAL = 30;
+
+    private record Interval(LocalDateTime start, LocalDateTime end) {
+    }
+
+    private record BlockTimes(LocalTime start, LocalTime end) {
+    }
+
+    @Test
+    void bitmapMatchesLegacyLoopOnRandomDays() {
+        Random random = new Random(4711);
+        for (int run = 0; run < 2000; run++) {
+            LocalTime opening = LocalTime.of(7 + random.nextInt(4), random.nextBoolean() ? 0 : 30);
+            LocalTime closing = LocalTime.of(15 + random.nextInt(6), random.nextBoolean() ? 0 : 30);
+            int duration = 15 + 5 * random.nextInt(24);
+
+            List<Interval> appointments = new ArrayList<>();
+            for (int i = random.nextInt(12); i > 0; i--) {
+                LocalDateTime start = DAY.atStartOfDay().plusMinutes(6 * 60 + random.nextInt(15 * 60));
+                appointments.add(new Interval(start, start.plusMinutes(10 + random.nextInt(120))));
+            }
+            List<BlockTimes> blocks = new ArrayList<>();
+            for (int i = random.nextInt(3); i > 0; i--) {
+                LocalTime start = LocalTime.of(6 + random.nextInt(14), random.nextInt(60));
+                blocks.add(new BlockTimes(start, start.plusMinutes(5 + random.nextInt(90))));
+            }
+
+            assertThat(bitmapSlots(opening, closing, duration, appointments, blocks))
+                    .as("Lauf %d: %s-%s, %d Min, Termine %s, Blockaden %s", run, opening, closing, duration, appointments, blocks)
+                    .isEqualTo(legacySlots(opening, closing, duration, appointments, blocks));
+        }
+    }
+
+    private static List<LocalTime> bitmapSlots(LocalTime opening, LocalTime closing, int duration,
+                                               List<Interval> appointments, List<BlockTimes> blocks) {
+        DayOccupancy occupancy = DayOccupancy.forOpeningHours(opening, closing);
+        appointments.forEach(appointment -> occupancy.occupy(DAY, appointment.start(), appointment.end()));
+        blocks.forEach(block -> occupancy.occupy(block.start(), block.end()));
+        return occupancy.findFreeStarts(DayOccupancy.minuteOfDay(opening), SLOT_INTERVAL, duration);
+    }
+
+    // Die Schleife aus der ursprünglichen getAvailableSlotsForServiceOnDate, ohne den "jetzt + 15 Minuten"-Filter
+    private static List<LocalTime> legacySlots(LocalTime opening, LocalTime closing, int duration,
+                                               List<Interval> appointments, List<BlockTimes> blocks) {
+        List<LocalTime> slots = new ArrayList<>();
+        LocalTime current = opening;
+        while (current.plusMinutes(duration).isBefore(closing) || current.plusMinutes(duration).equals(closing)) {
+            LocalDateTime proposedStart = DAY.atTime(current);
+            LocalDateTime proposedEnd = proposedStart.plusMinutes(duration);
+            boolean conflict = false;
+            for (Interval appointment : appointments) {
+                if (proposedStart.isBefore(appointment.end()) && proposedEnd.isAfter(appointment.start())) {
+                    conflict = true;
+                    break;
+                }
+            }
+            for (BlockTimes block : blocks) {
+                if (proposedStart.isBefore(DAY.atTime(block.end())) && proposedEnd.isAfter(DAY.atTime(block.start()))) {
+                    conflict = true;
+                    break;
+                }
+            }
+            if (!conflict) {
+                slots.add(current);
+            }
+            current = current.plusMinutes(SLOT_INTERVAL);
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,108 @@
+package com.friseursalon.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatisticsQueryExecutorTest {
+
+    private StatisticsQueryExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void allQueriesCompleteWithinTheirDeadline() {
+        executor = new StatisticsQueryExecutor(4, 2000);
+        StatisticsQueryExecutor.Batch batch = executor.newBatch();
+
+        StatisticsQueryExecutor.Pending<Long> first = batch.submit("first", () -> 1L);
+        StatisticsQueryExecutor.Pending<String> second = batch.submit("second", () -> "zwei");
+
+        assertThat(first.get()).isEqualTo(1L);
+        assertThat(second.get()).isEqualTo("zwei");
+        assertThat(batch.isComplete()).isTrue();
+    }
+
+    @Test
+    void slowQueryIsCancelledAndReportedWhileOthersStillDeliver() throws Exception {
+        executor = new StatisticsQueryExecutor(4, 200);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        StatisticsQueryExecutor.Batch batch = executor.newBatch();
+
+        StatisticsQueryExecutor.Pending<Long> slow = batch.submit("slow", () -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return 1L;
+        });
+        StatisticsQueryExecutor.Pending<Long> fast = batch.submit("fast", () -> 2L);
+
+        assertThat(slow.get()).isNull();
+        assertThat(fast.get()).isEqualTo(2L);
+        assertThat(batch.getMissing()).containsExactly("slow");
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void failingQueryYieldsNullAndIsReported() {
+        executor = new StatisticsQueryExecutor(4, 2000);
+        StatisticsQueryExecutor.Batch batch = executor.newBatch();
+
+        StatisticsQueryExecutor.Pending<Long> failing = batch.submit("failing", () -> {
+            throw new IllegalStateException("Datenbank nicht erreichbar");
+        });
+        StatisticsQueryExecutor.Pending<Long> working = batch.submit("working", () -> 3L);
+
+        assertThat(failing.get()).isNull();
+        assertThat(working.get()).isEqualTo(3L);
+        assertThat(batch.isComplete()).isFalse();
+        assertThat(batch.getMissing()).containsExactly("failing");
+    }
+
+    @Test
+    void waitingForAPermitDoesNotCountAgainstTheQueryDeadline() {
+        // Nur ein Platz: die zweite Abfrage startet erst nach der ersten, zusammen dauern beide länger als eine Frist
+        executor = new StatisticsQueryExecutor(1, 1000);
+        StatisticsQueryExecutor.Batch batch = executor.newBatch();
+
+        StatisticsQueryExecutor.Pending<Long> first = batch.submit("first", () -> {
+            Thread.sleep(600);
+            return 1L;
+        });
+        StatisticsQueryExecutor.Pending<Long> second = batch.submit("second", () -> {
+            Thread.sleep(600);
+            return 2L;
+        });
+
+        assertThat(first.get()).isEqualTo(1L);
+        assertThat(second.get()).isEqualTo(2L);
+        assertThat(batch.isComplete()).isTrue();
+    }
+
+    @Test
+    void queryWithoutPermitWithinTheDeadlineIsSkipped() {
+        executor = new StatisticsQueryExecutor(1, 200);
+        CountDownLatch release = new CountDownLatch(1);
+        StatisticsQueryExecutor.Batch batch = executor.newBatch();
+
+        batch.submit("blocking", () -> {
+            release.await();
+            return 1L;
+        });
+        StatisticsQueryExecutor.Pending<Long> queued = batch.submit("queued", () -> 2L);
+        release.countDown();
+
+        assertThat(queued.get()).isNull();
+        assertThat(batch.getMissing()).containsExactly("queued");
+    }
+}
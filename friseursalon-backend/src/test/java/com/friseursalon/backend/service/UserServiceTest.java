@@ -0,0 +1,111 @@
+package com.friseursalon.backend.service;
+
+import com.friseursalon.backend.cache.UserDetailsCache;
+import com.friseursalon.backend.model.ERole;
+import com.friseursalon.backend.model.Role;
+import com.friseursalon.backend.model.User;
+import com.friseursalon.backend.repository.CustomerRepository;
+import com.friseursalon.backend.repository.RoleRepository;
+import com.friseursalon.backend.repository.UserRepository;
+import com.friseursalon.backend.security.jwt.TokenVersionRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private UserService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserService(userRepository, roleRepository, passwordEncoder, mock(CustomerService.class),
+                mock(CustomerRepository.class), new TokenVersionRegistry(userRepository),
+                new UserDetailsCache(100, 300, new SimpleMeterRegistry()), transactionManager);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hash:" + invocation.getArgument(0));
+    }
+
+    @Test
+    void registrationHashesBeforeTheTransactionStarts() {
+        when(roleRepository.findByName(ERole.ROLE_USER)).thenReturn(Optional.of(new Role(1L, ERole.ROLE_USER)));
+
+        User user = service.registerNewUser("Anna", "Muster", "anna@example.com", "geheim123", null, null);
+
+        assertThat(user.getPassword()).isEqualTo("hash:geheim123");
+        InOrder order = inOrder(passwordEncoder, transactionManager);
+        order.verify(passwordEncoder).encode("geheim123");
+        order.verify(transactionManager).getTransaction(any());
+    }
+
+    @Test
+    void registrationOfATakenEmailDoesNotHash() {
+        when(userRepository.existsByEmail("anna@example.com")).thenReturn(true);
+
+        assertThatThrownBy(() -> service.registerNewUser("Anna", "Muster", "anna@example.com", "geheim123", null, null))
+                .hasMessageContaining("bereits vergeben");
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    void passwordChangeVerifiesAndHashesBeforeTheTransactionStarts() {
+        User user = new User("anna@example.com", "hash:alt");
+        user.setId(7L);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("alt", "hash:alt")).thenReturn(true);
+
+        service.changeUserPassword(7L, "alt", "neu");
+
+        assertThat(user.getPassword()).isEqualTo("hash:neu");
+        assertThat(user.currentTokenVersion()).isEqualTo(1);
+        InOrder order = inOrder(passwordEncoder, transactionManager);
+        order.verify(passwordEncoder).matches("alt", "hash:alt");
+        order.verify(passwordEncoder).encode("neu");
+        order.verify(transactionManager).getTransaction(any());
+    }
+
+    @Test
+    void wrongCurrentPasswordNeverOpensATransaction() {
+        User user = new User("anna@example.com", "hash:alt");
+        user.setId(7L);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+
+        assertThatThrownBy(() -> service.changeUserPassword(7L, "falsch", "neu"))
+                .hasMessageContaining("Ungültiges aktuelles Passwort");
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    void resetByTokenHashesBeforeTheTransactionStarts() {
+        User user = new User("anna@example.com", "hash:alt");
+        user.setId(7L);
+        user.setResetToken("token");
+
+        service.changeUserPasswordByToken(user, "neu");
+
+        assertThat(user.getPassword()).isEqualTo("hash:neu");
+        assertThat(user.getResetToken()).isNull();
+        InOrder order = inOrder(passwordEncoder, transactionManager);
+        order.verify(passwordEncoder).encode("neu");
+        order.verify(transactionManager).getTransaction(any());
+    }
+}
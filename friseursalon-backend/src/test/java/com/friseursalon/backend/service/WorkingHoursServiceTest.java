@@ -0,0 +1,85 @@
+package com.friseursalon.backend.service;
+
+import com.friseursalon.backend.cache.AvailabilityCache;
+import com.friseursalon.backend.cache.StatisticsCache;
+import com.friseursalon.backend.model.WorkingHours;
+import com.friseursalon.backend.repository.WorkingHoursRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WorkingHoursServiceTest {
+
+    // Montag
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 10);
+
+    private final WorkingHoursRepository repository = mock(WorkingHoursRepository.class);
+    private final AvailabilityCache availabilityCache = new AvailabilityCache(100, 300, new SimpleMeterRegistry());
+    private WorkingHoursService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new WorkingHoursService(repository, availabilityCache,
+                new StatisticsCache(100, 60, new SimpleMeterRegistry()));
+        when(repository.save(any(WorkingHours.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.findByDayOfWeek(any())).thenReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void scheduleIsReloadedBeforeTheAvailabilityCacheIsInvalidated() {
+        availabilityCache.putIfUnchanged(MONDAY, 30, 30, false, List.of(LocalTime.of(9, 0)), availabilityCache.currentGeneration());
+        List<Boolean> cachedDuringReload = new ArrayList<>();
+        when(repository.findAll()).thenAnswer(invocation -> {
+            cachedDuringReload.add(availabilityCache.get(MONDAY, 30, 30, false) != null);
+            return List.of(new WorkingHours(DayOfWeek.MONDAY, LocalTime.of(10, 0), LocalTime.of(16, 0), false));
+        });
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.setWorkingHours(DayOfWeek.MONDAY, LocalTime.of(10, 0), LocalTime.of(16, 0), false);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        // Wer nach der Invalidierung neu rechnet, sieht damit bereits den neuen Wochenplan
+        assertThat(cachedDuringReload).containsExactly(true);
+        assertThat(availabilityCache.get(MONDAY, 30, 30, false)).isNull();
+        assertThat(service.getWorkingHoursForDay(DayOfWeek.MONDAY)).get()
+                .extracting(WorkingHours::getStartTime).isEqualTo(LocalTime.of(10, 0));
+    }
+
+    @Test
+    void changesToReturnedWorkingHoursDoNotLeakIntoTheSchedule() {
+        when(repository.findAll()).thenReturn(List.of(new WorkingHours(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(17, 0), false)));
+
+        service.getWorkingHoursForDay(DayOfWeek.MONDAY).orElseThrow().setStartTime(LocalTime.of(6, 0));
+        service.getWorkingHoursByDay().get(DayOfWeek.MONDAY).setClosed(true);
+        service.getWorkingHoursByDay().remove(DayOfWeek.MONDAY);
+
+        WorkingHours monday = service.getWorkingHoursForDay(DayOfWeek.MONDAY).orElseThrow();
+        assertThat(monday.getStartTime()).isEqualTo(LocalTime.of(9, 0));
+        assertThat(monday.isClosed()).isFalse();
+        assertThat(service.getWorkingHoursByDay()).containsOnlyKeys(DayOfWeek.MONDAY);
+    }
+}